@@ -0,0 +1,68 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import controller.BatchValidator;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of the headless batch validator on an in-memory file of boards.
+ * Throughput is reported in files of {@link #BOARDS} boards per second.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    
+    /** Number of boards in the benchmarked file. */
+    public static final int BOARDS = 10_000;
+    
+    /** Share of the boards that are valid solutions; the rest attack or are malformed. */
+    @Param({"1.0", "0.5"})
+    public double validRatio;
+    
+    /** The contents of the benchmarked file. */
+    private byte[] input;
+    
+    /** The validator, reused across invocations like in a long batch run. */
+    private BatchValidator validator;
+    
+    /**
+     * Builds the input file for the current parameters.
+     */
+    @Setup
+    public void setUp() {
+        String valid = String.join(" ", Boards.positions(Boards.firstSolution(8), 8, true));
+        String invalid = String.join(",", Boards.positions(Boards.firstSolution(8), 8, false));
+        String malformed = "A1 B7 Z9";
+        
+        StringBuilder sb = new StringBuilder();
+        int validBoards = (int) (BOARDS * validRatio);
+        for (int i = 0; i < BOARDS; i++) {
+            sb.append(i < validBoards ? valid : (i % 2 == 0 ? invalid : malformed)).append('\n');
+        }
+        input = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        validator = new BatchValidator(8, true);
+    }
+    
+    /**
+     * Validates the whole file.
+     * @return The statistics of the run.
+     * @throws IOException Never, the input is in memory.
+     */
+    @Benchmark
+    public BatchValidator.BatchStats validate() throws IOException {
+        return validator.validate(new ByteArrayInputStream(input), OutputStream.nullOutputStream());
+    }
+}
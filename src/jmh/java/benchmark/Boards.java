@@ -0,0 +1,52 @@
+package benchmark;
+
+import model.ChessboardModel;
+import model.DancingLinksSolver;
+import model.Position;
+
+/**
+ * Board fixtures shared by the benchmarks.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+final class Boards {
+    
+    /** Utility class, no instances. */
+    private Boards() {
+    }
+    
+    /**
+     * Finds a solution of an empty N x N board with the solver under test.
+     *
+     * @param n The board dimension (4 or more).
+     * @return The column of the queen in each row.
+     */
+    static int[] firstSolution(int n) {
+        int[] queens = new DancingLinksSolver(new ChessboardModel(n)).solve();
+        if (queens == null) {
+            throw new IllegalArgumentException("No solution for N=" + n);
+        }
+        return queens;
+    }
+    
+    /**
+     * Builds the position strings of a (partial) board.
+     * The invalid variant moves the last queen into the column of the first one.
+     *
+     * @param queens A solution, the column of the queen in each row.
+     * @param count How many rows (from the top) receive a queen, at least 2.
+     * @param valid Whether the queens must be free of attacks.
+     * @return The positions in notation, e.g. "A1".
+     */
+    static String[] positions(int[] queens, int count, boolean valid) {
+        String[] positions = new String[count];
+        for (int r = 0; r < count; r++) {
+            positions[r] = new Position(r, queens[r]).toNotation();
+        }
+        if (!valid) {
+            positions[count - 1] = new Position(count - 1, queens[0]).toNotation();
+        }
+        return positions;
+    }
+}
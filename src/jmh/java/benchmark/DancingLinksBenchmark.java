@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import model.ChessboardModel;
+import model.CompletionEngine;
+import model.DancingLinksSolver;
+import model.NQueensSolver;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the exact cover solver against the bitmask engines on the same boards.
+ * The first {@code placed} queens of a known solution are pre-placed, every second row.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DancingLinksBenchmark {
+    
+    /** Board dimension. */
+    @Param({"8", "10", "12"})
+    public int n;
+    
+    /** Number of pre-placed queens. */
+    @Param({"0", "2"})
+    public int placed;
+    
+    /** The board with the pre-placed queens. */
+    private ChessboardModel model;
+    
+    /** Exact cover solver built for the board. */
+    private DancingLinksSolver solver;
+    
+    /**
+     * Places the queens and builds the exact cover matrix once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] queens = Boards.firstSolution(n);
+        model = new ChessboardModel(n);
+        for (int i = 0; i < placed; i++) {
+            model.placeQueen(2 * i, queens[2 * i]);
+        }
+        solver = new DancingLinksSolver(model);
+    }
+    
+    /**
+     * Dancing Links count; the matrix is restored after every search.
+     * @return The number of completions.
+     */
+    @Benchmark
+    public long dancingLinks() {
+        return solver.count();
+    }
+    
+    /**
+     * Dancing Links count including building the matrix.
+     * @return The number of completions.
+     */
+    @Benchmark
+    public long dancingLinksWithSetup() {
+        return new DancingLinksSolver(model).count();
+    }
+    
+    /**
+     * Memoized bitmask count of the completions.
+     * @return The number of completions.
+     */
+    @Benchmark
+    public long completionEngine() {
+        return CompletionEngine.analyze(model, Long.MAX_VALUE).count();
+    }
+    
+    /**
+     * Plain bitmask count of the empty board, the baseline for {@code placed = 0}.
+     * @return The number of solutions.
+     */
+    @Benchmark
+    public long bitmask() {
+        return NQueensSolver.count(n);
+    }
+}
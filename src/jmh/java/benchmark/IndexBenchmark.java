@@ -0,0 +1,40 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import model.SolutionIndex;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of finished-board lookups in the precomputed {@link SolutionIndex}.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+    
+    /** A solution and a non-solution, alternately looked up. */
+    private final long[] masks = {
+        SolutionIndex.mask(Boards.firstSolution(8)),
+        SolutionIndex.mask(new int[] {0, 1, 2, 3, 4, 5, 6, 7})
+    };
+    
+    /** Index of the next mask. */
+    private int next;
+    
+    /**
+     * Single-probe lookup in the solution index.
+     * @return The classification, or null for the non-solution.
+     */
+    @Benchmark
+    public SolutionIndex.SolutionInfo lookup() {
+        return SolutionIndex.forSize(8).lookup(masks[next++ & 1]);
+    }
+}
@@ -0,0 +1,152 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import model.ChessboardModel;
+import model.InvalidPositionException;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the {@link ChessboardModel} hot paths.
+ * Parameterized by board size, the share of rows holding a queen and whether the queens attack each other.
+ * Run with {@code -prof gc} to see the allocation rate next to the throughput.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    
+    /** Board dimension. */
+    @Param({"8", "16", "24"})
+    public int size;
+    
+    /** Share of the rows that receive a queen. */
+    @Param({"0.5", "1.0"})
+    public double fillRatio;
+    
+    /** Whether the placed queens form a conflict-free board. */
+    @Param({"true", "false"})
+    public boolean valid;
+    
+    /** Positions of the benchmarked board. */
+    private String[] positions;
+    
+    /** Model that is refilled by the benchmarks. */
+    private ChessboardModel model;
+    
+    /** Model already holding the benchmarked board. */
+    private ChessboardModel filled;
+    
+    /**
+     * Prepares the positions and the models for the current parameters.
+     */
+    @Setup
+    public void setUp() {
+        int count = Math.max(2, (int) Math.round(size * fillRatio));
+        positions = Boards.positions(Boards.firstSolution(size), count, valid);
+        model = new ChessboardModel(size);
+        filled = new ChessboardModel(size);
+        for (String pos : positions) {
+            filled.placeQueen(pos);
+        }
+    }
+    
+    /**
+     * Parses every position of the board.
+     * @param bh Consumes the parsed positions.
+     */
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (String pos : positions) {
+            bh.consume(model.parse(pos));
+        }
+    }
+    
+    /**
+     * Validates every position against an empty board (all accepted).
+     * @param bh Consumes the outcome.
+     * @throws InvalidPositionException Never, every square is free.
+     */
+    @Benchmark
+    public void isValidPlacementFree(Blackhole bh) throws InvalidPositionException {
+        for (String pos : positions) {
+            model.isValidPlacement(pos);
+        }
+        bh.consume(model);
+    }
+    
+    /**
+     * Validates every position against the filled board (all rejected as occupied).
+     * @param bh Consumes the rejections.
+     */
+    @Benchmark
+    public void isValidPlacementOccupied(Blackhole bh) {
+        for (String pos : positions) {
+            try {
+                filled.isValidPlacement(pos);
+            } catch (InvalidPositionException ex) {
+                bh.consume(ex);
+            }
+        }
+    }
+    
+    /**
+     * Checks every position against the filled board without exceptions (all OCCUPIED).
+     * @param bh Consumes the result codes.
+     */
+    @Benchmark
+    public void checkPlacementOccupied(Blackhole bh) {
+        for (String pos : positions) {
+            bh.consume(filled.checkPlacement(pos));
+        }
+    }
+    
+    /**
+     * Clears the board, places every queen and checks the result, as a validator does per board.
+     * @return Whether the board is a valid solution.
+     */
+    @Benchmark
+    public boolean placeQueens() {
+        model.clearBoard();
+        for (String pos : positions) {
+            model.placeQueen(pos);
+        }
+        return model.isSolutionValid();
+    }
+    
+    /**
+     * Clears the board.
+     * @return The cleared model.
+     */
+    @Benchmark
+    public ChessboardModel clearBoard() {
+        model.clearBoard();
+        return model;
+    }
+    
+    /**
+     * Checks the filled board.
+     * @return Whether the board is a valid solution.
+     */
+    @Benchmark
+    public boolean isSolutionValid() {
+        return filled.isSolutionValid();
+    }
+    
+    /**
+     * Builds the compatibility view used by the board window.
+     * @return The list of rows.
+     */
+    @Benchmark
+    public Object getBoard() {
+        return filled.getBoard();
+    }
+}
@@ -0,0 +1,165 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import controller.ValidationServer;
+import model.SolverCache;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Load test of the HTTP validation service: several threads send {@code /validate} requests
+ * over keep-alive connections to a server on a free loopback port. Reports requests per second
+ * and the client-side latency distribution, whose p0.99 line is the p99 of a request.
+ * The client writes the request bytes and reads the answer by its Content-Length on a plain
+ * socket, so little of the time is its own; client and server still share the machine, so run
+ * with {@code -t} at most half the cores.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ServerBenchmark {
+
+    /** The validation request, with a valid board of N = 8. */
+    private static final byte[] REQUEST = ("GET /validate?board=A1,B7,C5,D8,E2,F4,G6,H3 HTTP/1.1\r\n"
+            + "Host: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    /** The server under load. */
+    private ValidationServer server;
+
+    /** Directory of the server's solver cache. */
+    private Path cacheDir;
+
+    /**
+     * Keep-alive connection of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        /** The connection. */
+        private Socket socket;
+
+        /** Receives the answers. */
+        private InputStream in;
+
+        /** Sends the requests. */
+        private OutputStream out;
+
+        /** Holds one answer. */
+        private final byte[] answer = new byte[4096];
+
+        /**
+         * Connects to the server.
+         * @param bench The benchmark holding the server.
+         * @throws IOException If the server cannot be reached.
+         */
+        @Setup(Level.Trial)
+        public void connect(ServerBenchmark bench) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), bench.server.getPort());
+            socket.setTcpNoDelay(true);
+            in = socket.getInputStream();
+            out = socket.getOutputStream();
+        }
+
+        /**
+         * Closes the connection.
+         * @throws IOException If the socket cannot be closed.
+         */
+        @TearDown(Level.Trial)
+        public void disconnect() throws IOException {
+            socket.close();
+        }
+
+        /**
+         * Sends a request and reads its whole answer.
+         * @return The length of the answer.
+         * @throws IOException If the connection fails.
+         */
+        int roundTrip() throws IOException {
+            out.write(REQUEST);
+            int length = 0;
+            int end = -1;
+            int body;
+            while (end < 0 || length < end) {
+                int read = in.read(answer, length, answer.length - length);
+                if (read < 0) throw new IOException("Connection closed by the server");
+                length += read;
+                if (end < 0 && (body = headerEnd(length)) >= 0) {
+                    end = body + contentLength(body);
+                }
+            }
+            return length;
+        }
+
+        /**
+         * @param length Number of bytes read so far.
+         * @return The start of the body, or -1 if the headers are incomplete.
+         */
+        private int headerEnd(int length) {
+            for (int i = 3; i < length; i++) {
+                if (answer[i] == '\n' && answer[i - 1] == '\r' && answer[i - 2] == '\n' && answer[i - 3] == '\r') return i + 1;
+            }
+            return -1;
+        }
+
+        /**
+         * @param body The start of the body.
+         * @return The value of the Content-Length header.
+         * @throws IOException If the header is missing.
+         */
+        private int contentLength(int body) throws IOException {
+            String headers = new String(answer, 0, body, StandardCharsets.US_ASCII).toLowerCase();
+            int at = headers.indexOf("content-length:");
+            if (at < 0) throw new IOException("Answer without Content-Length");
+            return Integer.parseInt(headers.substring(at + 15, headers.indexOf('\r', at)).trim());
+        }
+    }
+
+    /**
+     * Starts the server once per trial.
+     * @throws IOException If the cache directory cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("server-benchmark");
+        server = new ValidationServer(0, null, new SolverCache(cacheDir.resolve("solver-cache.bin")));
+        server.start();
+    }
+
+    /**
+     * Stops the server and removes its cache.
+     * @throws IOException If the cache cannot be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+        Files.deleteIfExists(cacheDir.resolve("solver-cache.bin"));
+        Files.deleteIfExists(cacheDir);
+    }
+
+    /**
+     * One validation round trip.
+     * @param client The thread's connection.
+     * @return The length of the answer.
+     * @throws IOException If the request fails.
+     */
+    @Benchmark
+    public int validate(Client client) throws IOException {
+        return client.roundTrip();
+    }
+}
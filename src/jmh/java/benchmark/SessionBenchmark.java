@@ -0,0 +1,75 @@
+package benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import model.GameSession;
+import model.SessionRegistry;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Load test of the session registry: several threads play on random sessions at once.
+ * Every operation looks a session up, places a queen (resetting full boards) and validates it,
+ * like one move of a player; throughput is reported in moves per second for a growing number
+ * of open sessions. Run with {@code -t} to change the number of threads.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class SessionBenchmark {
+    
+    /** Number of open sessions. */
+    @Param({"1", "1000", "100000"})
+    public int sessions;
+    
+    /** The registry shared by all threads. */
+    private SessionRegistry registry;
+    
+    /** Ids of the open sessions. */
+    private long[] ids;
+    
+    /**
+     * Random choices of one benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Player {
+        
+        /** Source of session and square choices. */
+        private final SplittableRandom random = new SplittableRandom();
+    }
+    
+    /**
+     * Opens the sessions once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new SessionRegistry();
+        ids = new long[sessions];
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = registry.create(8).getId();
+        }
+    }
+    
+    /**
+     * One move on a random session.
+     * @param player The thread's random choices.
+     * @return Whether the board is still valid.
+     */
+    @Benchmark
+    public boolean move(Player player) {
+        GameSession session = registry.get(ids[player.random.nextInt(ids.length)]);
+        if (session.getQueenCount() == session.getSize()) {
+            session.reset();
+        }
+        session.place(player.random.nextInt(8), player.random.nextInt(8));
+        return session.isSolutionValid();
+    }
+}
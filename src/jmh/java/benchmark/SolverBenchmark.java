@@ -0,0 +1,58 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import model.NQueensSolver;
+import model.ParallelSolver;
+import model.SymmetrySolver;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the solver engines on the same board sizes.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    
+    /** Board dimension. */
+    @Param({"8", "10", "12"})
+    public int n;
+    
+    /** Parallel solver using every core. */
+    private final ParallelSolver parallel = new ParallelSolver();
+    
+    /**
+     * Sequential bitmask count.
+     * @return The number of solutions.
+     */
+    @Benchmark
+    public long count() {
+        return NQueensSolver.count(n);
+    }
+    
+    /**
+     * Symmetry-reduced count.
+     * @return The total and fundamental counts.
+     */
+    @Benchmark
+    public SymmetrySolver.SymmetryCount symmetryCount() {
+        return SymmetrySolver.count(n);
+    }
+    
+    /**
+     * Fork/join count.
+     * @return The number of solutions with timing statistics.
+     */
+    @Benchmark
+    public ParallelSolver.ParallelCount parallelCount() {
+        return parallel.count(n);
+    }
+}
@@ -0,0 +1,148 @@
+package controller;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.swing.SwingWorker;
+
+/**
+ * A heavy computation run off the Event Dispatch Thread.
+ * <p>
+ * The work reports its progress through {@link #report(double, String)}, which may be called
+ * from any thread and as often as convenient: updates are dropped unless a frame has passed since
+ * the last one, and Swing coalesces the rest, so the UI is refreshed at most {@link #MAX_FPS}
+ * times per second. The result, the cancellation or the failure is handed back on the EDT.
+ * </p>
+ * @param <T> The type of the result.
+ * * @author Adam
+ * * @version 5.0
+ */
+class BackgroundJob<T> extends SwingWorker<T, BackgroundJob.Progress> {
+    
+    /** Maximum number of progress updates per second. */
+    static final int MAX_FPS = 30;
+    
+    /** Minimum time between two published updates. */
+    private static final long FRAME_NANOS = 1_000_000_000L / MAX_FPS;
+    
+    /**
+     * One progress update.
+     *
+     * @param fraction The finished part of the work (0 to 1), or a negative value if unknown.
+     * @param message The text to show.
+     */
+    record Progress(double fraction, String message) {
+    }
+    
+    /**
+     * The computation itself.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    interface Work<T> {
+        
+        /**
+         * Runs the computation on the worker thread.
+         * @param job The job, for reporting progress and polling {@link #isCancelled()}.
+         * @return The result.
+         * @throws Exception If the computation fails.
+         */
+        T run(BackgroundJob<T> job) throws Exception;
+    }
+    
+    /** The computation. */
+    private final Work<T> work;
+    
+    /** Receives each coalesced progress update on the EDT. */
+    private final Consumer<Progress> onProgress;
+    
+    /** Receives the result on the EDT. */
+    private final Consumer<T> onSuccess;
+    
+    /** Receives the failure on the EDT; a {@link CancellationException} if the job was cancelled. */
+    private final Consumer<Exception> onFailure;
+    
+    /** Time of the last published update. */
+    private final AtomicLong lastPublish = new AtomicLong(System.nanoTime() - FRAME_NANOS);
+    
+    /** Stops computations that do not poll {@link #isCancelled()}, or null. */
+    private volatile Runnable stopHook;
+    
+    /**
+     * Constructor wiring the computation to its callbacks.
+     * @param work The computation.
+     * @param onProgress Receives each coalesced progress update on the EDT.
+     * @param onSuccess Receives the result on the EDT.
+     * @param onFailure Receives the failure or cancellation on the EDT.
+     */
+    BackgroundJob(Work<T> work, Consumer<Progress> onProgress, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        this.work = work;
+        this.onProgress = onProgress;
+        this.onSuccess = onSuccess;
+        this.onFailure = onFailure;
+    }
+    
+    /**
+     * Publishes a progress update unless one was published less than a frame ago.
+     * Safe to call from any thread.
+     * @param fraction The finished part of the work (0 to 1), or a negative value if unknown.
+     * @param message The text to show.
+     */
+    void report(double fraction, String message) {
+        long now = System.nanoTime();
+        long last = lastPublish.get();
+        if (now - last >= FRAME_NANOS && lastPublish.compareAndSet(last, now)) {
+            publish(new Progress(fraction, message));
+        }
+    }
+    
+    /**
+     * Registers an action that interrupts the computation, for engines with their own cancel method.
+     * Register it before {@link #execute()}; if the job was already stopped, the action runs at once.
+     * It may then run twice when a stop races the registration, so it must be idempotent.
+     * @param hook The action run by {@link #stop()}.
+     */
+    void whenStopped(Runnable hook) {
+        this.stopHook = hook;
+        if (isCancelled()) hook.run();
+    }
+    
+    /**
+     * Cancels the job and runs the registered stop action.
+     */
+    void stop() {
+        cancel(true);
+        Runnable hook = stopHook;
+        if (hook != null) hook.run();
+    }
+    
+    @Override
+    protected T doInBackground() throws Exception {
+        return work.run(this);
+    }
+    
+    @Override
+    protected void process(List<Progress> chunks) {
+        // Only the newest update is worth drawing
+        if (!isCancelled()) {
+            onProgress.accept(chunks.get(chunks.size() - 1));
+        }
+    }
+    
+    @Override
+    protected void done() {
+        try {
+            onSuccess.accept(get());
+        } catch (CancellationException ex) {
+            onFailure.accept(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            onFailure.accept(ex);
+        } catch (ExecutionException ex) {
+            onFailure.accept(ex.getCause() instanceof Exception cause ? cause : ex);
+        }
+    }
+}
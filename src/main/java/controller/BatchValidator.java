@@ -0,0 +1,349 @@
+package controller;
+
+import model.AsciiSlice;
+import model.ChessboardModel;
+import model.PlacementResult;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Headless validator for files of board submissions.
+ * Every non-blank input line holds one board as N positions separated by spaces or commas
+ * (e.g. "A1 B7 C5 D8 E2 F4 G6 H3"). The input is read in fixed-size byte chunks and every
+ * position is parsed straight from the buffer into a single reused {@link ChessboardModel},
+ * so no objects are created per line and memory stays bounded no matter how large the input is.
+ * <p>
+ * For every board one result line is written: {@code <line> VALID}, {@code <line> INVALID}
+ * (queens attack each other) or {@code <line> ERROR <reason>} (malformed submission),
+ * followed by summary lines starting with {@code #}.
+ * </p>
+ * * @author Adam
+ * * @version 5.0
+ */
+public class BatchValidator {
+
+    /**
+     * Aggregate statistics of a batch run.
+     *
+     * @param boards Number of boards read (blank lines are not counted).
+     * @param valid Number of boards that are valid solutions.
+     * @param invalid Number of well-formed boards in which queens attack each other.
+     * @param malformed Number of boards rejected because of their format.
+     * @param elapsedNanos Wall-clock time of the run.
+     */
+    public record BatchStats(long boards, long valid, long invalid, long malformed, long elapsedNanos) {
+
+        /**
+         * @return The throughput of the run in boards per second.
+         */
+        public double boardsPerSecond() {
+            return elapsedNanos == 0 ? 0 : boards * 1e9 / elapsedNanos;
+        }
+    }
+
+    /** Size of the input and output buffers. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Reason reported for boards that do not hold exactly one position per row. */
+    static final String WRONG_COUNT_MESSAGE = "Wrong number of positions.";
+
+    /** {@link #WRONG_COUNT_MESSAGE} as written to the output. */
+    private static final byte[] WRONG_COUNT = ascii(WRONG_COUNT_MESSAGE);
+
+    /** Verdict of a valid board. */
+    private static final byte[] VALID = ascii(" VALID\n");
+
+    /** Verdict of a board with attacking queens. */
+    private static final byte[] INVALID = ascii(" INVALID\n");
+
+    /** Prefix of the verdict of a malformed board. */
+    private static final byte[] ERROR = ascii(" ERROR ");
+
+    /** Messages of the placement result codes, by ordinal. */
+    private static final byte[][] MESSAGES = Arrays.stream(PlacementResult.values())
+            .map(r -> ascii(r.getMessage()))
+            .toArray(byte[][]::new);
+
+    /** The model reused for every board. */
+    private final ChessboardModel model;
+
+    /** Whether a result line is written for every board, or only the summary. */
+    private final boolean writeResults;
+
+    /** View over the current position inside the input buffer. */
+    private final AsciiSlice slice = new AsciiSlice();
+
+    /** Scratch space for formatting line numbers. */
+    private final byte[] digits = new byte[20];
+
+    /**
+     * Constructor initializing the validator for boards of the given size.
+     * @param size The board dimension N; every line must contain exactly N positions.
+     * @param writeResults true to write a result line per board, false for the summary only.
+     */
+    public BatchValidator(int size, boolean writeResults) {
+        this.model = new ChessboardModel(size);
+        this.writeResults = writeResults;
+    }
+
+    /**
+     * Validates every board of the input and writes the results and the summary.
+     * Memory use is bounded by the buffer size, or by the longest line if that is longer.
+     * @param in The source of boards, one per line (ASCII).
+     * @param out The destination of the result lines.
+     * @return The aggregate statistics of the run.
+     * @throws IOException If reading or writing fails.
+     */
+    public BatchStats validate(InputStream in, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long lineNo = 0, boards = 0, valid = 0, invalid = 0, malformed = 0;
+        OutputStream sink = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, BUFFER_SIZE);
+
+        byte[] buf = new byte[BUFFER_SIZE];
+        int filled = 0;
+        boolean eof = false;
+
+        while (!eof || filled > 0) {
+            // Refill the buffer behind the unfinished line
+            if (!eof) {
+                int n = in.read(buf, filled, buf.length - filled);
+                if (n < 0) eof = true; else filled += n;
+            }
+
+            int lineStart = 0;
+            int nl;
+            while ((nl = indexOf(buf, lineStart, filled)) >= 0 || (eof && lineStart < filled)) {
+                int lineEnd = nl >= 0 ? nl : filled;
+                lineNo++;
+
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && buf[contentEnd - 1] == '\r') contentEnd--;
+                if (!isBlank(buf, lineStart, contentEnd)) {
+                    boards++;
+                    byte[] error = loadBoard(buf, lineStart, contentEnd);
+                    boolean solved = error == null && model.isSolutionValid();
+                    if (error != null) {
+                        malformed++;
+                    } else if (solved) {
+                        valid++;
+                    } else {
+                        invalid++;
+                    }
+                    if (writeResults) {
+                        writeNumber(sink, lineNo);
+                        if (error != null) {
+                            sink.write(ERROR);
+                            sink.write(error);
+                            sink.write('\n');
+                        } else {
+                            sink.write(solved ? VALID : INVALID);
+                        }
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+
+            // Keep the unfinished line, growing the buffer only if a single line does not fit
+            int rest = Math.max(0, filled - lineStart);
+            if (rest == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            } else if (rest > 0) {
+                System.arraycopy(buf, lineStart, buf, 0, rest);
+            }
+            filled = rest;
+        }
+
+        BatchStats stats = new BatchStats(boards, valid, invalid, malformed, System.nanoTime() - start);
+        sink.write(ascii(String.format("# boards=%d valid=%d invalid=%d malformed=%d%n", boards, valid, invalid, malformed)));
+        sink.write(ascii(String.format("# elapsed=%.3fs throughput=%.0f boards/s%n", stats.elapsedNanos() / 1e9, stats.boardsPerSecond())));
+        sink.flush();
+        return stats;
+    }
+
+    /**
+     * Clears the model and places the queens listed in one input line.
+     * Rejections are reported through {@link PlacementResult} codes, so bad input costs no exception.
+     * @param buf The input buffer.
+     * @param from Offset of the first byte of the line.
+     * @param to Offset after the last byte of the line.
+     * @return null if all positions were placed, otherwise the reason for rejecting the board.
+     */
+    private byte[] loadBoard(byte[] buf, int from, int to) {
+        model.clearBoard();
+        int placed = placeAll(model, slice.wrap(buf, from, to), 0, to - from);
+        if (placed < 0) {
+            return MESSAGES[-1 - placed];
+        }
+        if (placed != model.getSize()) {
+            return WRONG_COUNT;
+        }
+        return null;
+    }
+
+    /**
+     * Places the queens of a list of positions on a model, the board format shared by the batch
+     * input and the HTTP service. Stops at the first position that cannot be placed.
+     * @param model The board receiving the queens.
+     * @param line The positions separated by spaces, tabs, commas or semicolons.
+     * @param from Index of the first character.
+     * @param to Index after the last character.
+     * @return The number of queens placed, or {@code -1 - }{@link PlacementResult#ordinal()} of the rejection.
+     */
+    static int placeAll(ChessboardModel model, CharSequence line, int from, int to) {
+        int size = model.getSize();
+        int placed = 0;
+        int i = from;
+
+        while (i < to) {
+            // Skip separators
+            while (i < to && isSeparator(line.charAt(i))) i++;
+            if (i == to) break;
+
+            int end = i;
+            while (end < to && !isSeparator(line.charAt(end))) end++;
+
+            int sq = model.checkSquare(line, i, end);
+            if (sq < 0) {
+                return sq;
+            }
+            model.placeQueen(sq / size, sq % size);
+            placed++;
+            i = end;
+        }
+        return placed;
+    }
+
+    /**
+     * Checks whether a character separates two positions.
+     * @param c The character to check.
+     * @return true for spaces, tabs, commas and semicolons.
+     */
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == ',' || c == '\t' || c == ';';
+    }
+
+    /**
+     * Checks whether a region holds only separators.
+     * @param buf The input buffer.
+     * @param from Offset of the first byte.
+     * @param to Offset after the last byte.
+     * @return true if there is nothing to validate.
+     */
+    private static boolean isBlank(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isSeparator((char) (buf[i] & 0xFF))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the next line break.
+     * @param buf The input buffer.
+     * @param from Offset to start at.
+     * @param to Offset after the last filled byte.
+     * @return The offset of the next '\n', or -1.
+     */
+    private static int indexOf(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a non-negative number in decimal without creating a String.
+     * @param out The destination.
+     * @param value The number to write.
+     * @throws IOException If writing fails.
+     */
+    private void writeNumber(OutputStream out, long value) throws IOException {
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(digits, pos, digits.length - pos);
+    }
+
+    /**
+     * Encodes text as ASCII bytes.
+     * @param text The text to encode.
+     * @return The bytes.
+     */
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Runs a batch validation from the command line.
+     * @param input The input file, or "-" for standard input.
+     * @param output The output file, or null / "-" for standard output.
+     * @return The process exit code: 0 on success, 1 on I/O errors.
+     */
+    public static int run(String input, String output) {
+        try (InputStream in = "-".equals(input) ? new KeepOpenInputStream(System.in) : Files.newInputStream(Path.of(input));
+             OutputStream out = new BufferedOutputStream(output == null || "-".equals(output)
+                    ? new KeepOpenOutputStream(System.out)
+                    : Files.newOutputStream(Path.of(output)), BUFFER_SIZE)) {
+
+            new BatchValidator(ChessboardModel.DEFAULT_SIZE, true).validate(in, out);
+            return 0;
+
+        } catch (IOException ex) {
+            System.err.println("Batch Error: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * View of standard input that is not closed with the batch, so the JVM can keep using it.
+     */
+    private static final class KeepOpenInputStream extends FilterInputStream {
+
+        /**
+         * @param in The stream to protect.
+         */
+        KeepOpenInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // The stream belongs to the caller
+        }
+    }
+
+    /**
+     * View of standard output that is only flushed when the batch closes it,
+     * so later messages of the same JVM still reach the console.
+     */
+    private static final class KeepOpenOutputStream extends FilterOutputStream {
+
+        /**
+         * @param out The stream to protect.
+         */
+        KeepOpenOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // FilterOutputStream would write byte by byte
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package controller;
 
 import model.ChessboardModel;
+import model.CompletionEngine;
+import model.DancingLinksSolver;
 import model.InvalidPositionException;
+import model.ParallelSolver;
+import model.Position;
+import model.SolverCache;
 import view.ChessboardBoardView;
 import view.ChessboardEntryView;
 
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Controller class managing the interaction between the Model and the Views.
@@ -25,6 +37,18 @@ public class ChessboardController {
     /** Counter for the current queen being placed */
     private int currentQueenCounter = 1;
     
+    /** Maximum number of safe squares listed in the hint */
+    private static final int MAX_HINT_SQUARES = 8;
+    
+    /** The running solve or count job of the board view, or null */
+    private BackgroundJob<?> boardJob;
+    
+    /** The running hint job of the entry view, or null */
+    private BackgroundJob<?> hintJob;
+    
+    /** Solution counts of earlier runs, so a repeated count is answered at once */
+    private final SolverCache solverCache;
+    
     /** Command line arguments passed from main */
     private final String[] args;
     
@@ -34,12 +58,14 @@ public class ChessboardController {
      * @param model The game logic model.
      * @param entryView The view for entering positions.
      * @param boardView The view for displaying the chessboard.
+     * @param solverCache Stores the solution counts of the board view.
      * @param args Command line arguments.
      */
-    public ChessboardController(ChessboardModel model, ChessboardEntryView entryView, ChessboardBoardView boardView, String[] args) {
+    public ChessboardController(ChessboardModel model, ChessboardEntryView entryView, ChessboardBoardView boardView, SolverCache solverCache, String[] args) {
         this.model = model;
         this.entryView = entryView;
         this.boardView = boardView;
+        this.solverCache = solverCache;
         this.args = args;
         
         initController();
@@ -56,6 +82,11 @@ public class ChessboardController {
         // Attaching logic to the "Reset" button in the board view
         boardView.addResetListener((ActionEvent e) -> handleResetClick());
         
+        // Attaching the background actions of the board view
+        boardView.addSolveListener((ActionEvent e) -> handleSolveClick());
+        boardView.addCountListener((ActionEvent e) -> handleCountClick());
+        boardView.addCancelListener((ActionEvent e) -> handleCancelClick());
+        
         // Check if command line arguments are valid (must be exactly 8 positions)
         if (args != null && args.length == 8) {
             boolean success = processCommandLineArguments();
@@ -72,6 +103,7 @@ public class ChessboardController {
         }
         
         // Default behavior: Display the entry window
+        updateHint();
         entryView.setVisible(true);
     }
     
@@ -120,8 +152,9 @@ public class ChessboardController {
                 // Finishes input phase of the app
                 finishInputPhase();
             } else {
-                // Update the queen number label for the user
+                // Update the queen number label and the hint for the user
                 entryView.setNr(currentQueenCounter);
+                updateHint();
             }
             
         } catch (InvalidPositionException ex) {
@@ -140,7 +173,7 @@ public class ChessboardController {
         entryView.setVisible(false);
         
         // Update the board window with data from the model
-        boardView.updateBoard(model.getBoard());
+        boardView.setBoardLayout(model);
         
         // Check if the solution of the puzzle is correct
         boolean valid = model.isSolutionValid();
@@ -160,15 +193,206 @@ public class ChessboardController {
      * Clears the model and views, and returns to the input phase.
      */
     private void handleResetClick() {
+        // Stops computations that refer to the old board
+        handleCancelClick();
+        
         // Clears model data and counter
         model.clearBoard();
         currentQueenCounter = 1;
         
         // Clears lists and inputs in views
         entryView.reset(); 
+        updateHint();
         
         // Goes back to the entry window
         boardView.setVisible(false);
         entryView.setVisible(true);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Handles the action when the "Solve" button is clicked.
+     * Searches a completion of the placed queens in the background (or, if there is none,
+     * a solution of the empty board) and shows it on the board.
+     */
+    private void handleSolveClick() {
+        // The solvers copy the board here, so the worker never touches the model
+        DancingLinksSolver completion = new DancingLinksSolver(model);
+        DancingLinksSolver fresh = new DancingLinksSolver(new ChessboardModel(model.getSize()));
+        
+        startBoardJob("Searching for a solution...", job -> {
+            job.report(-1, "Completing the placed queens...");
+            int[] queens = completion.solve();
+            if (queens != null) return queens;
+            job.report(-1, "No completion, searching any solution...");
+            return fresh.solve();
+        }, () -> {
+            completion.cancel();
+            fresh.cancel();
+        }, (int[] queens) -> {
+            boolean kept = containsQueens(queens);
+            model.clearBoard();
+            for (int r = 0; r < queens.length; r++) {
+                model.placeQueen(r, queens[r]);
+            }
+            boardView.setStatus(kept ? "Solved: completed the placed queens." : "Solved: the placed queens cannot be completed, showing another solution.");
+        });
+    }
+    
+    /**
+     * Checks whether a solution keeps every queen currently on the board.
+     * @param queens The column of the queen in each row.
+     * @return true if each placed queen stands on a square of the solution.
+     */
+    private boolean containsQueens(int[] queens) {
+        for (int r = 0; r < queens.length; r++) {
+            for (int c = 0; c < queens.length; c++) {
+                if (model.isOccupied(r, c) && queens[r] != c) return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Handles the action when the "Count" button is clicked.
+     * Counts all solutions of the selected board size on worker threads, reporting each finished work unit.
+     */
+    private void handleCountClick() {
+        int n = boardView.getCountSize();
+        long cached = solverCache.getIfPresent(SolverCache.Key.total(n));
+        if (cached >= 0) {
+            boardView.setStatus(String.format("N=%d has %,d solutions (cached).", n, cached));
+            return;
+        }
+        ParallelSolver solver = new ParallelSolver();
+        AtomicLong found = new AtomicLong();
+        
+        startBoardJob("Counting N=" + n + "...", job -> {
+            ParallelSolver.ParallelCount result = solver.count(n, new ParallelSolver.ProgressListener() {
+                @Override
+                public void unitCompleted(int unit, long solutions, int completed, int total) {
+                    long sum = found.addAndGet(solutions);
+                    job.report((double) completed / total, String.format("N=%d: %,d solutions so far (%d/%d units)", n, sum, completed, total));
+                }
+                
+                @Override
+                public boolean isCancelled() {
+                    return job.isCancelled();
+                }
+            });
+            solverCache.put(SolverCache.Key.total(n), result.solutions());
+            saveSolverCache();
+            return result;
+        }, null, (ParallelSolver.ParallelCount result) -> boardView.setStatus(String.format(
+                "N=%d has %,d solutions (%.1f s).", n, result.solutions(), result.elapsedNanos() / 1e9)));
+    }
+    
+    /**
+     * Handles the action when the "Cancel" button is clicked.
+     * Stops the running background computations; their results are discarded.
+     */
+    private void handleCancelClick() {
+        if (boardJob != null) boardJob.stop();
+        if (hintJob != null) hintJob.stop();
+    }
+    
+    /**
+     * Writes the solution cache; a failure only costs the recount on the next run.
+     */
+    private void saveSolverCache() {
+        try {
+            solverCache.save();
+        } catch (IOException ex) {
+            System.err.println("Cache Error: " + ex.getMessage());
+        }
+    }
+    
+    /**
+     * Runs a computation of the board view in the background, with the controls switched to busy.
+     * @param <T> The type of the result.
+     * @param message The initial progress text.
+     * @param work The computation.
+     * @param stopHook Interrupts a computation that does not poll for cancellation, or null.
+     * @param onSuccess Receives the result on the EDT.
+     */
+    private <T> void startBoardJob(String message, BackgroundJob.Work<T> work, Runnable stopHook, Consumer<T> onSuccess) {
+        if (boardJob != null) boardJob.stop();
+        boardView.setBusy(true, message);
+        
+        // A replaced job still calls back once it winds down; only the current job may touch the view
+        BackgroundJob<?>[] self = new BackgroundJob<?>[1];
+        BackgroundJob<T> job = new BackgroundJob<>(work,
+            progress -> {
+                if (self[0] == boardJob) boardView.showProgress(progress.fraction(), progress.message());
+            },
+            result -> {
+                if (self[0] != boardJob) return;
+                boardView.setBusy(false, "Done");
+                onSuccess.accept(result);
+            },
+            ex -> {
+                if (self[0] != boardJob) return;
+                boardView.setBusy(false, ex instanceof CancellationException ? "Cancelled" : "Failed");
+                if (!(ex instanceof CancellationException)) {
+                    boardView.setStatus("Error: " + ex.getMessage());
+                }
+            });
+        self[0] = job;
+        if (stopHook != null) job.whenStopped(stopHook);
+        boardJob = job;
+        job.execute();
+    }
+    
+    /**
+     * Shows how many solutions the placed queens still allow and where the next queen can go.
+     * The analysis runs in the background on a copy of the board; an older hint still running is
+     * stopped and never shown.
+     */
+    private void updateHint() {
+        if (hintJob != null) hintJob.stop();
+        ChessboardModel snapshot = model.copy();
+        
+        BackgroundJob<?>[] self = new BackgroundJob<?>[1];
+        BackgroundJob<CompletionEngine.Completion> job = new BackgroundJob<>(
+            j -> CompletionEngine.analyze(snapshot, CompletionEngine.DEFAULT_NODE_BUDGET, j::isCancelled),
+            progress -> { },
+            completion -> {
+                if (self[0] == hintJob) entryView.setHint(formatHint(completion));
+            },
+            ex -> {
+                // A stopped hint was superseded; any other failure leaves no valid hint to show
+                if (self[0] == hintJob && !(ex instanceof CancellationException)) {
+                    entryView.setHint("Hint unavailable: " + ex.getMessage());
+                }
+            });
+        self[0] = job;
+        hintJob = job;
+        job.execute();
+    }
+    
+    /**
+     * Formats the hint about the remaining solutions and safe squares.
+     * @param completion The analysis of the board.
+     * @return The hint text.
+     */
+    private static String formatHint(CompletionEngine.Completion completion) {
+        if (completion.count() == 0) {
+            return "No solution contains these queens any more.";
+        }
+        
+        List<Position> safe = new ArrayList<>();
+        for (int r = 0; r < completion.size(); r++) {
+            for (int c = 0; c < completion.size(); c++) {
+                if (completion.isSafe(r, c)) safe.add(new Position(r, c));
+            }
+        }
+        String squares = safe.stream()
+                .limit(MAX_HINT_SQUARES)
+                .map(Position::toNotation)
+                .collect(Collectors.joining(" "));
+        if (safe.size() > MAX_HINT_SQUARES) {
+            squares += " ...";
+        }
+        String count = completion.count() < 0 ? "many" : String.valueOf(completion.count());
+        return "Remaining solutions: " + count + " | Safe squares: " + squares;
+    }
+}
@@ -1,10 +1,12 @@
 package controller;
 
 import model.ChessboardModel;
+import model.SolverCache;
 import view.ChessboardBoardView;
 import view.ChessboardEntryView;
 
 import javax.swing.SwingUtilities;
+import java.util.Arrays;
 
 /**
  * Main application class responsible for launching the 8 Queens Puzzle program.
@@ -13,9 +15,28 @@ public class Projekt {
     
     /**
      * The main entry point of the application.
-     * * @param args Command line arguments (not used in this version).
+     * With {@code --cli <positions>} or {@code --batch <input|-> [output]} the board is validated
+     * headlessly by {@link ValidatorCli}, which never loads AWT ({@code --catalogue <n> <file>} writes
+     * a solution catalogue and {@code --count <n> [checkpoint]} counts the solutions the same way);
+     * the same happens for positions passed while {@code java.awt.headless=true}. {@code --server [port] [journal]} starts the HTTP service
+     * of {@link ValidationServer}. Otherwise the GUI is started.
+     * * @param args Command line arguments (8 positions to skip the entry phase, or a headless request).
      */
     public static void main(String[] args) {
+        // Headless modes must be dispatched before any Swing class is touched
+        if (args.length > 0 && args[0].equals("--cli")) {
+            ValidatorCli.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--server")) {
+            ValidationServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && (args[0].equals("--batch") || args[0].equals("--catalogue") || args[0].equals("--count") || Boolean.getBoolean("java.awt.headless"))) {
+            ValidatorCli.main(args);
+            return;
+        }
+        
         // Swing applications must start in the Event Dispatch Thread (EDT) for thread safety
         SwingUtilities.invokeLater(() -> {
             
@@ -26,8 +47,11 @@ public class Projekt {
             ChessboardEntryView entryView = new ChessboardEntryView();
             ChessboardBoardView boardView = new ChessboardBoardView();
             
+            // Solution counts are kept across runs in the user's home directory
+            SolverCache solverCache = new SolverCache(SolverCache.defaultFile());
+            
             // Initialize the Controller which manages the application flow (The Controller's constructor will set entryView.setVisible(true))
-            new ChessboardController(model, entryView, boardView, args);
+            new ChessboardController(model, entryView, boardView, solverCache, args);
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,598 @@
+package controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.ChessboardModel;
+import model.CompletionEngine;
+import model.EventJournal;
+import model.GameSession;
+import model.PlacementResult;
+import model.Position;
+import model.SessionRegistry;
+import model.SolutionIndex;
+import model.SolutionRanker;
+import model.SolverCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local HTTP front end of the engine, for tools that do not need the Swing windows.
+ * Runs on the JDK's built-in server with one virtual thread per request; every answer is a small
+ * JSON object, malformed requests get status 400.
+ * <ul>
+ * <li>{@code GET /validate?board=A1,B7,C5,D8,E2,F4,G6,H3[&n=8]} - VALID, INVALID or an error</li>
+ * <li>{@code GET /count?n=12[&fundamental=true]} - number of solutions, from the persistent {@link SolverCache}</li>
+ * <li>{@code GET /kth?n=8&k=5} - the solution with the given lexicographic index</li>
+ * <li>{@code GET /hint?board=C4,F5[&n=8]} - completions and the squares that keep the board solvable</li>
+ * <li>{@code GET /session?op=new[&n=8]}, {@code op=place&id=..&pos=A1}, {@code op=validate&id=..},
+ * {@code op=reset&id=..} - games of many players, kept in a {@link SessionRegistry}</li>
+ * <li>{@code GET /stats} - requests, errors and p50/p99 latency per endpoint</li>
+ * </ul>
+ * Boards are parsed straight from the query into {@link ChessboardModel}s taken from a pool per
+ * size and cleared before they are returned, so a request allocates no board of its own. Boards are
+ * limited to {@link #MAX_BOARD_SIZE} and the pool to a fixed number of models, so its memory is bounded.
+ * The server binds to the loopback interface only.
+ * * @author Adam
+ * * @version 5.0
+ */
+public final class ValidationServer implements AutoCloseable {
+
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 8080;
+
+    /** Largest N answered by {@code /count} and {@code /kth}; larger counts take minutes. */
+    public static final int MAX_COUNT_SIZE = 16;
+
+    /**
+     * Largest N answered by {@code /validate} and {@code /hint}; the answer and the pooled models
+     * of larger boards grow with N squared.
+     */
+    public static final int MAX_BOARD_SIZE = 64;
+
+    /** Number of idle models kept per board size. */
+    private static final int POOL_CAPACITY = 256;
+
+    /** Number of idle models kept over all board sizes. */
+    private static final int MAX_POOLED_MODELS = 1024;
+
+    /** The endpoints, in the order reported by {@code /stats}. */
+    private static final List<String> ENDPOINTS = List.of("/validate", "/count", "/kth", "/hint", "/session", "/stats");
+
+    /** Outcomes of a placement check, by ordinal. */
+    private static final PlacementResult[] RESULTS = PlacementResult.values();
+
+    /** Thrown for malformed requests; answered with status 400, or 404 for unknown sessions. */
+    private static final class BadRequest extends RuntimeException {
+        
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        
+        /** The HTTP status of the answer. */
+        final int status;
+        
+        BadRequest(String message) {
+            this(400, message);
+        }
+        
+        BadRequest(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    /**
+     * The ranker of one board size with the lock guarding it, since rankers are not thread-safe.
+     * The ranker counts all solutions when it is built, so it is built lazily under this lock
+     * rather than inside the map: requests for other sizes are never held up.
+     */
+    private static final class SharedRanker {
+        
+        /** The board dimension. */
+        private final int size;
+        
+        /** Holds the subtree counts of the ranker. */
+        private final SolverCache cache;
+        
+        /** Guards the ranker; a {@link ReentrantLock} does not pin virtual threads. */
+        private final ReentrantLock lock = new ReentrantLock();
+        
+        /** The ranker, or null until first use. */
+        private SolutionRanker ranker;
+        
+        /**
+         * @param size The board dimension.
+         * @param cache Holds the subtree counts of the ranker.
+         */
+        SharedRanker(int size, SolverCache cache) {
+            this.size = size;
+            this.cache = cache;
+        }
+        
+        /**
+         * Returns the solution with the given index.
+         * @param k The lexicographic index.
+         * @return The column of the queen in each row.
+         * @throws BadRequest If k is out of range.
+         */
+        int[] unrank(long k) {
+            lock.lock();
+            try {
+                if (ranker == null) ranker = new SolutionRanker(size, cache);
+                if (k < 0 || k >= ranker.getCount()) {
+                    throw new BadRequest("k must be between 0 and " + (ranker.getCount() - 1));
+                }
+                return ranker.unrank(k);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** The underlying server. */
+    private final HttpServer server;
+
+    /** Runs every exchange on its own virtual thread. */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Idle cleared models by board size. */
+    private final Map<Integer, ArrayBlockingQueue<ChessboardModel>> pool = new ConcurrentHashMap<>();
+
+    /** Number of models in {@link #pool}. */
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /** Solution counts, kept across restarts. */
+    private final SolverCache cache;
+
+    /** Rankers by board size. */
+    private final Map<Integer, SharedRanker> rankers = new ConcurrentHashMap<>();
+
+    /** Open game sessions. */
+    private final SessionRegistry sessions;
+
+    /** Audit trail of the session moves, or null. */
+    private final EventJournal journal;
+
+    /** Statistics by endpoint. */
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    /**
+     * Constructs a server listening on the loopback interface; it starts with {@link #start()}.
+     * @param port The port, or 0 for any free port.
+     * @param journal Receives the session moves and is closed with the server, or null.
+     * @param cache Holds the solution counts and is saved when the server is closed.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ValidationServer(int port, EventJournal journal, SolverCache cache) throws IOException {
+        this.journal = journal;
+        this.cache = cache;
+        this.sessions = new SessionRegistry(SessionRegistry.DEFAULT_IDLE_TIMEOUT, System::nanoTime, journal);
+        // Headers and body leave in separate writes; without TCP_NODELAY each answer waits for a delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        for (String path : ENDPOINTS) {
+            stats.put(path, new EndpointStats());
+            server.createContext(path, exchange -> handle(path, exchange));
+        }
+    }
+
+    /**
+     * Starts the server with {@code Projekt --server [port] [journal]} and runs until the process is stopped.
+     * @param args The optional port and the optional journal file of the session moves.
+     */
+    public static void main(String[] args) {
+        try {
+            int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+            EventJournal journal = args.length > 1 ? new EventJournal(Path.of(args[1])) : null;
+            ValidationServer server = new ValidationServer(port, journal, new SolverCache(SolverCache.defaultFile()));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            server.start();
+            System.out.println("Listening on http://localhost:" + server.getPort() + "/ (validate, count, kth, hint, stats)");
+        } catch (NumberFormatException ex) {
+            System.err.println("Usage: --server [port] [journal]");
+            System.exit(ValidatorCli.EXIT_ERROR);
+        } catch (IOException ex) {
+            System.err.println("Server Error: " + ex.getMessage());
+            System.exit(ValidatorCli.EXIT_ERROR);
+        }
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, letting running requests finish for up to one second.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            cache.close();
+        } catch (IOException ex) {
+            System.err.println("Cache Error: " + ex.getMessage());
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                System.err.println("Journal Error: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answers one exchange and records its latency.
+     * @param path The endpoint.
+     * @param exchange The request and response.
+     */
+    private void handle(String path, HttpExchange exchange) {
+        long start = System.nanoTime();
+        int status = 200;
+        String body;
+        try {
+            String query = exchange.getRequestURI().getRawQuery();
+            body = switch (path) {
+                case "/validate" -> validate(query);
+                case "/count" -> count(query);
+                case "/kth" -> kth(query);
+                case "/hint" -> hint(query);
+                case "/session" -> session(query);
+                default -> stats();
+            };
+        } catch (BadRequest ex) {
+            status = ex.status;
+            body = "{\"error\":" + quote(ex.getMessage()) + "}";
+        } catch (RuntimeException ex) {
+            status = 500;
+            body = "{\"error\":" + quote(String.valueOf(ex.getMessage())) + "}";
+        }
+
+        try (exchange) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException ex) {
+            // The client went away; nothing to answer
+            status = 499;
+        }
+        stats.get(path).record(System.nanoTime() - start, status != 200);
+    }
+
+    /**
+     * Answers {@code /validate}.
+     * @param query The raw query string.
+     * @return The verdict as JSON.
+     */
+    private String validate(String query) {
+        ChessboardModel model = borrow(boardSize(query));
+        try {
+            String error = load(model, param(query, "board"));
+            if (error != null) throw new BadRequest(error);
+            if (model.getQueenCount() != model.getSize()) throw new BadRequest(BatchValidator.WRONG_COUNT_MESSAGE);
+            return model.isSolutionValid() ? "{\"result\":\"VALID\"}" : "{\"result\":\"INVALID\"}";
+        } finally {
+            release(model);
+        }
+    }
+
+    /**
+     * Answers {@code /count}.
+     * @param query The raw query string.
+     * @return The number of solutions as JSON.
+     */
+    private String count(String query) {
+        int n = countSize(query);
+        if ("true".equals(param(query, "fundamental"))) {
+            return "{\"n\":" + n + ",\"fundamental\":" + cache.fundamentalCount(n) + "}";
+        }
+        return "{\"n\":" + n + ",\"count\":" + cache.count(n) + "}";
+    }
+
+    /**
+     * Answers {@code /kth}.
+     * @param query The raw query string.
+     * @return The solution as JSON.
+     */
+    private String kth(String query) {
+        int n = countSize(query);
+        long k = parseLong(param(query, "k"), "k");
+        int[] queens = rankers.computeIfAbsent(n, size -> new SharedRanker(size, cache)).unrank(k);
+
+        StringBuilder json = new StringBuilder("{\"n\":").append(n).append(",\"k\":").append(k).append(",\"queens\":[");
+        for (int r = 0; r < n; r++) {
+            if (r > 0) json.append(',');
+            json.append('"').append(new Position(r, queens[r]).toNotation()).append('"');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Answers {@code /hint}.
+     * @param query The raw query string.
+     * @return The completions and safe squares as JSON.
+     */
+    private String hint(String query) {
+        ChessboardModel model = borrow(boardSize(query));
+        try {
+            String error = load(model, param(query, "board"));
+            if (error != null) throw new BadRequest(error);
+            CompletionEngine.Completion completion = model.getCompletion();
+
+            StringBuilder json = new StringBuilder("{\"exact\":").append(completion.exact())
+                    .append(",\"completions\":").append(completion.count()).append(",\"safe\":[");
+            // Walks the squares itself: the model's interned positions would stay with it in the pool
+            boolean first = true;
+            for (int r = 0; r < model.getSize(); r++) {
+                for (int c = 0; c < model.getSize(); c++) {
+                    if (!completion.isSafe(r, c)) continue;
+                    if (!first) json.append(',');
+                    json.append('"').append(new Position(r, c).toNotation()).append('"');
+                    first = false;
+                }
+            }
+            return json.append("]}").toString();
+        } finally {
+            release(model);
+        }
+    }
+
+    /**
+     * Answers {@code /session}: opens a game or places, validates or resets on one.
+     * @param query The raw query string.
+     * @return The session id or the outcome of the operation as JSON.
+     */
+    private String session(String query) {
+        String op = param(query, "op");
+        if ("new".equals(op)) {
+            int n = boardSize(query);
+            if (n > SolutionIndex.MAX_INDEXED_SIZE) {
+                throw new BadRequest("n must be between 1 and " + SolutionIndex.MAX_INDEXED_SIZE);
+            }
+            GameSession created = sessions.create(n);
+            return "{\"id\":" + created.getId() + ",\"n\":" + n + "}";
+        }
+
+        GameSession session = sessions.get(parseLong(param(query, "id"), "id"));
+        if (session == null) throw new BadRequest(404, "Unknown or expired session");
+        switch (op == null ? "" : op) {
+            case "place" -> {
+                String pos = param(query, "pos");
+                if (pos == null) throw new BadRequest("Missing parameter: pos");
+                int sq = ChessboardModel.parseSquare(pos, 0, pos.length(), session.getSize());
+                PlacementResult result = sq < 0 ? PlacementResult.OUT_OF_RANGE : session.place(sq / session.getSize(), sq % session.getSize());
+                return "{\"result\":\"" + result + "\",\"queens\":" + session.getQueenCount() + "}";
+            }
+            case "validate" -> {
+                return session.isSolutionValid() ? "{\"result\":\"VALID\"}" : "{\"result\":\"INVALID\"}";
+            }
+            case "reset" -> {
+                session.reset();
+                return "{\"queens\":0}";
+            }
+            default -> throw new BadRequest("op must be new, place, validate or reset");
+        }
+    }
+
+    /**
+     * Answers {@code /stats}.
+     * @return The statistics of every endpoint as JSON.
+     */
+    private String stats() {
+        StringBuilder json = new StringBuilder("{\"sessions\":").append(sessions.size())
+                .append(",\"evictedSessions\":").append(sessions.getEvictedCount());
+        for (Map.Entry<String, EndpointStats> e : stats.entrySet()) {
+            EndpointStats s = e.getValue();
+            json.append(',').append(quote(e.getKey())).append(":{\"requests\":").append(s.requests.sum())
+                    .append(",\"errors\":").append(s.errors.sum())
+                    .append(",\"p50Micros\":").append(s.percentile(0.50) / 1000)
+                    .append(",\"p99Micros\":").append(s.percentile(0.99) / 1000).append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Places the queens listed in a board parameter, like one line of the {@link BatchValidator}.
+     * @param model A cleared model.
+     * @param board The positions separated by commas, spaces or semicolons.
+     * @return null if all positions were placed, otherwise the reason for rejecting the board.
+     */
+    private static String load(ChessboardModel model, String board) {
+        if (board == null) throw new BadRequest("Missing parameter: board");
+        int placed = BatchValidator.placeAll(model, board, 0, board.length());
+        return placed < 0 ? RESULTS[-1 - placed].getMessage() : null;
+    }
+
+    /**
+     * Takes a cleared model of a size from the pool, or creates one.
+     * @param size The board dimension.
+     * @return The model, owned by the caller until {@link #release(ChessboardModel)}.
+     */
+    private ChessboardModel borrow(int size) {
+        ChessboardModel model = pool.computeIfAbsent(size, s -> new ArrayBlockingQueue<>(POOL_CAPACITY)).poll();
+        if (model == null) return new ChessboardModel(size);
+        pooled.decrementAndGet();
+        return model;
+    }
+
+    /**
+     * Clears a model and returns it to the pool; it is dropped if the pool of its size or the
+     * whole pool is full.
+     * @param model The borrowed model.
+     */
+    private void release(ChessboardModel model) {
+        model.clearBoard();
+        if (pooled.incrementAndGet() > MAX_POOLED_MODELS || !pool.get(model.getSize()).offer(model)) {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * @param query The raw query string.
+     * @return The board size of a validate or hint request, 8 by default.
+     */
+    private static int boardSize(String query) {
+        String n = param(query, "n");
+        int size = n == null ? ChessboardModel.DEFAULT_SIZE : (int) parseLong(n, "n");
+        if (size < 1 || size > MAX_BOARD_SIZE) {
+            throw new BadRequest("n must be between 1 and " + MAX_BOARD_SIZE);
+        }
+        return size;
+    }
+
+    /**
+     * @param query The raw query string.
+     * @return The board size of a count or kth request.
+     */
+    private static int countSize(String query) {
+        long n = parseLong(param(query, "n"), "n");
+        if (n < 1 || n > MAX_COUNT_SIZE) {
+            throw new BadRequest("n must be between 1 and " + MAX_COUNT_SIZE);
+        }
+        return (int) n;
+    }
+
+    /**
+     * Finds a parameter in a query string without building a map of all parameters.
+     * @param query The raw query string, or null.
+     * @param name The parameter name.
+     * @return The decoded value, or null if the parameter is absent.
+     */
+    private static String param(String query, String name) {
+        if (query == null) return null;
+        int i = 0;
+        while (i <= query.length()) {
+            int end = query.indexOf('&', i);
+            if (end < 0) end = query.length();
+            if (query.startsWith(name, i) && i + name.length() < end && query.charAt(i + name.length()) == '=') {
+                String raw = query.substring(i + name.length() + 1, end);
+                return raw.indexOf('%') < 0 && raw.indexOf('+') < 0 ? raw : URLDecoder.decode(raw, StandardCharsets.UTF_8);
+            }
+            i = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * @param value The text of a number, or null.
+     * @param name The parameter name, for the error message.
+     * @return The number.
+     */
+    private static long parseLong(String value, String name) {
+        if (value == null) throw new BadRequest("Missing parameter: " + name);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new BadRequest("Not a number: " + name);
+        }
+    }
+
+    /**
+     * @param text The text.
+     * @return The text as a JSON string literal.
+     */
+    private static String quote(String text) {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * Request counters and a lock-free latency histogram of one endpoint.
+     * Latencies fall into buckets of 1/16 of a power of two, so percentiles are accurate to about 6%.
+     */
+    private static final class EndpointStats {
+
+        /** Number of sub-buckets per power of two, as a bit count. */
+        private static final int SUB_BITS = 4;
+
+        /** Number of sub-buckets per power of two. */
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        /** Number of answered requests. */
+        final LongAdder requests = new LongAdder();
+
+        /** Number of requests not answered with status 200. */
+        final LongAdder errors = new LongAdder();
+
+        /** Number of requests by latency bucket. */
+        private final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BITS) * SUB_BUCKETS);
+
+        /**
+         * @param nanos The latency of a request.
+         * @param failed Whether the request failed.
+         */
+        void record(long nanos, boolean failed) {
+            requests.increment();
+            if (failed) errors.increment();
+            buckets.incrementAndGet(bucket(Math.max(0, nanos)));
+        }
+
+        /**
+         * @param fraction The percentile as a fraction (0 to 1).
+         * @return The upper bound of the bucket holding the percentile, in nanoseconds.
+         */
+        long percentile(double fraction) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) total += buckets.get(i);
+            long target = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) return upperBound(i);
+            }
+            return 0;
+        }
+
+        /**
+         * @param nanos A non-negative latency.
+         * @return Its bucket: exact below {@link #SUB_BUCKETS}, then 16 buckets per power of two.
+         */
+        private static int bucket(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) nanos;
+            int msb = 63 - Long.numberOfLeadingZeros(nanos);
+            return (msb - SUB_BITS + 1) * SUB_BUCKETS + (int) ((nanos >>> (msb - SUB_BITS)) & (SUB_BUCKETS - 1));
+        }
+
+        /**
+         * @param bucket A bucket index.
+         * @return The largest latency falling into the bucket.
+         */
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int shift = bucket / SUB_BUCKETS - 1;
+            return ((long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift) + (1L << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package controller;
+
+import model.ChessboardModel;
+import model.CountCheckpoint;
+import model.InvalidPositionException;
+import model.ParallelSolver;
+import model.SolutionCatalogue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Pure command line entry point of the validator.
+ * It only touches the {@code model} package, so neither AWT nor Swing is ever loaded and the
+ * program starts quickly and runs on headless servers.
+ * <p>
+ * Usage: {@code ValidatorCli A1 B7 C5 D8 E2 F4 G6 H3} prints the verdict for one board,
+ * {@code ValidatorCli --batch <input|-> [output]} validates a file of boards (see {@link BatchValidator}),
+ * {@code ValidatorCli --catalogue <n> <file>} writes every solution of an NxN board to a {@link SolutionCatalogue},
+ * {@code ValidatorCli --count <n> [checkpoint]} counts the solutions in parallel, resuming from a {@link CountCheckpoint}.
+ * The exit code is 0 for a valid solution, 1 for an invalid one and 2 for malformed input.
+ * </p>
+ * * @author Adam
+ * * @version 5.0
+ */
+public final class ValidatorCli {
+    
+    /** Exit code for a valid solution (and a successful batch run). */
+    public static final int EXIT_VALID = 0;
+    
+    /** Exit code for a board in which queens attack each other. */
+    public static final int EXIT_INVALID = 1;
+    
+    /** Exit code for malformed arguments or positions. */
+    public static final int EXIT_ERROR = 2;
+    
+    /** Utility class, no instances. */
+    private ValidatorCli() {
+    }
+    
+    /**
+     * The command line entry point.
+     * @param args Positions of the board, or {@code --batch <input|-> [output]}.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+    
+    /**
+     * Validates the board or batch described by the arguments and prints the verdict.
+     * @param args Positions of the board, {@code --batch <input|-> [output]}, {@code --catalogue <n> <file>}
+     *        or {@code --count <n> [checkpoint]}.
+     * @return The process exit code.
+     */
+    public static int run(String[] args) {
+        if (args.length >= 1 && args[0].equals("--batch")) {
+            if (args.length < 2) {
+                System.err.println("Usage: --batch <input|-> [output]");
+                return EXIT_ERROR;
+            }
+            return BatchValidator.run(args[1], args.length > 2 ? args[2] : null) == 0 ? EXIT_VALID : EXIT_ERROR;
+        }
+        if (args.length >= 1 && args[0].equals("--catalogue")) {
+            return writeCatalogue(args);
+        }
+        if (args.length >= 1 && args[0].equals("--count")) {
+            return countSolutions(args);
+        }
+        
+        ChessboardModel model = new ChessboardModel();
+        if (args.length != model.getSize()) {
+            System.err.println("CLI Error: Expected " + model.getSize() + " positions but found " + args.length + ".");
+            return EXIT_ERROR;
+        }
+        
+        try {
+            for (String pos : args) {
+                model.isValidPlacement(pos);
+                model.placeQueen(pos);
+            }
+        } catch (InvalidPositionException ex) {
+            System.err.println("CLI Error: Invalid position found in arguments - " + ex.getMessage());
+            return EXIT_ERROR;
+        }
+        
+        if (model.isSolutionValid()) {
+            System.out.println("SUCCESS! No queens are attacking each other.");
+            return EXIT_VALID;
+        }
+        System.out.println("FAILURE. Queens are attacking each other.");
+        return EXIT_INVALID;
+    }
+    
+    /**
+     * Generates a solution catalogue and prints its size.
+     * @param args {@code --catalogue <n> <file>}.
+     * @return The process exit code.
+     */
+    private static int writeCatalogue(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: --catalogue <n> <file>");
+            return EXIT_ERROR;
+        }
+        try {
+            int n = Integer.parseInt(args[1]);
+            Path file = Path.of(args[2]);
+            long start = System.nanoTime();
+            long count = SolutionCatalogue.write(n, file);
+            System.out.printf("Wrote %d solutions of N=%d to %s (%d bytes) in %.1fs%n",
+                    count, n, file, Files.size(file), (System.nanoTime() - start) / 1e9);
+            return EXIT_VALID;
+        } catch (NumberFormatException ex) {
+            System.err.println("Catalogue Error: Not a board size - " + args[1]);
+        } catch (IllegalArgumentException | IOException ex) {
+            System.err.println("Catalogue Error: " + ex.getMessage());
+        }
+        return EXIT_ERROR;
+    }
+    
+    /**
+     * Counts the solutions of a board size on all cores and prints the total.
+     * With a checkpoint file the finished work units are saved periodically, and a restarted
+     * count continues where the last one stopped.
+     * @param args {@code --count <n> [checkpoint]}.
+     * @return The process exit code.
+     */
+    private static int countSolutions(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: --count <n> [checkpoint]");
+            return EXIT_ERROR;
+        }
+        try {
+            int n = Integer.parseInt(args[1]);
+            ParallelSolver solver = new ParallelSolver();
+            ParallelSolver.ParallelCount result;
+            if (args.length == 3) {
+                CountCheckpoint checkpoint = new CountCheckpoint(Path.of(args[2]));
+                result = solver.count(n, null, checkpoint);
+                System.out.printf("Resumed %d of %d units from %s (%d saves, %.1f ms)%n", checkpoint.getRestoredUnits(),
+                        result.tasks(), checkpoint.getFile(), checkpoint.getSaves(), checkpoint.getSaveNanos() / 1e6);
+            } else {
+                result = solver.count(n);
+            }
+            System.out.printf("N=%d has %d solutions (%.1fs)%n", n, result.solutions(), result.elapsedNanos() / 1e9);
+            return EXIT_VALID;
+        } catch (NumberFormatException ex) {
+            System.err.println("Count Error: Not a board size - " + args[1]);
+        } catch (IllegalArgumentException | IOException ex) {
+            System.err.println("Count Error: " + ex.getMessage());
+        }
+        return EXIT_ERROR;
+    }
+}
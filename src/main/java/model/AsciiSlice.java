@@ -0,0 +1,56 @@
+package model;
+
+/**
+ * Reusable {@link CharSequence} view over a region of an ASCII byte buffer.
+ * Lets the position parser read straight from I/O buffers: one instance is pointed at each
+ * new region with {@link #wrap(byte[], int, int)}, so no String is built per line or coordinate.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+public final class AsciiSlice implements CharSequence {
+    
+    /** The underlying buffer. */
+    private byte[] buffer = new byte[0];
+    
+    /** Offset of the first byte of the view. */
+    private int offset;
+    
+    /** Number of bytes in the view. */
+    private int length;
+    
+    /**
+     * Points the view at a new region.
+     *
+     * @param buffer The buffer holding ASCII text.
+     * @param from Offset of the first byte (inclusive).
+     * @param to Offset after the last byte (exclusive).
+     * @return This view, for chaining.
+     */
+    public AsciiSlice wrap(byte[] buffer, int from, int to) {
+        this.buffer = buffer;
+        this.offset = from;
+        this.length = to - from;
+        return this;
+    }
+    
+    @Override
+    public int length() {
+        return length;
+    }
+    
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer[offset + index] & 0xFF);
+    }
+    
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new AsciiSlice().wrap(buffer, offset + start, offset + end);
+    }
+    
+    @Override
+    public String toString() {
+        return new String(buffer, offset, length, java.nio.charset.StandardCharsets.ISO_8859_1);
+    }
+}
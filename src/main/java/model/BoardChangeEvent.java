@@ -0,0 +1,30 @@
+package model;
+
+/**
+ * Describes a change of a {@link ChessboardModel}: the squares whose content changed.
+ * Squares are encoded as {@code row * size + col}, so an event costs one small array.
+ *
+ * @param source The board that changed.
+ * @param squares The changed squares.
+ * @param cleared true if the board was cleared; {@code squares} then lists the removed queens.
+ * @author Adam
+ * @version 5.0
+ */
+public record BoardChangeEvent(ChessboardModel source, int[] squares, boolean cleared) {
+    
+    /**
+     * @param index The index into {@link #squares()}.
+     * @return The row of the changed square.
+     */
+    public int row(int index) {
+        return squares[index] / source.getSize();
+    }
+    
+    /**
+     * @param index The index into {@link #squares()}.
+     * @return The column of the changed square.
+     */
+    public int col(int index) {
+        return squares[index] % source.getSize();
+    }
+}
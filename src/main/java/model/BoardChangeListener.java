@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Receives the changes of a {@link ChessboardModel}.
+ * Listeners are called synchronously on the thread that changed the board, so they should
+ * only record the change and do the actual work later (e.g. on the Event Dispatch Thread).
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@FunctionalInterface
+public interface BoardChangeListener {
+    
+    /**
+     * Called after the board has changed.
+     *
+     * @param event The changed squares.
+     */
+    void boardChanged(BoardChangeEvent event);
+}
@@ -0,0 +1,36 @@
+package model;
+
+/**
+ * Read-only view of a square board holding queens, as needed for rendering.
+ * Every query must run in constant time, so that drawing the visible part of a board
+ * costs the same no matter how large the board is.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+public interface BoardLayout {
+    
+    /**
+     * @return The board dimension N.
+     */
+    int getSize();
+    
+    /**
+     * Checks whether a queen stands on a square.
+     *
+     * @param row The row index (0 to N-1).
+     * @param col The column index (0 to N-1).
+     * @return true if the square holds a queen.
+     */
+    boolean isQueen(int row, int col);
+    
+    /**
+     * Counts the queens attacking a square along its row, column and diagonals.
+     * A queen standing on the square itself is not counted.
+     *
+     * @param row The row index (0 to N-1).
+     * @param col The column index (0 to N-1).
+     * @return The number of attacking queens.
+     */
+    int attackCount(int row, int col);
+}
@@ -1,155 +1,611 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import lombok.*;
 
 /**
- * Represents the data model for the 8 Queens Puzzle.
+ * Represents the data model for the N Queens Puzzle (8x8 by default).
  * It stores the state of the chessboard and provides methods to manipulate and validate it.
+ * <p>
+ * The board is kept as a bitboard: bit {@code row * size + col} is set when a queen stands
+ * on that square. An 8x8 board fits in a single {@code long}, so clearing, placing and
+ * occupancy checks are single bit operations.
+ * </p>
  *
  * @author Adam
- * @version 4.0
+ * @version 5.0
  */
 @Getter
-public class ChessboardModel {
+public class ChessboardModel implements BoardLayout {
     
-    /** Board dimension (8x8). */
-    private static final int SIZE = 8;
+    /** Default board dimension (8x8). */
+    public static final int DEFAULT_SIZE = 8;
     
-    /** * Double array list representing the chessboard grid.
-     * Stores the state of each square (EMPTY or QUEEN).
+    /** Largest supported board dimension (columns A..ZZ). */
+    public static final int MAX_SIZE = 26 + 26 * 26;
+    
+    /** Result of parsing malformed input. */
+    private static final Position MALFORMED = new Position(-1, -1);
+    
+    /** Board dimension (size x size). */
+    private final int size;
+    
+    /** * Bitboard of the chessboard grid, packed into 64-bit words.
+     * Bit {@code row * size + col} is set when the square holds a QUEEN.
+     */
+    @Getter(AccessLevel.NONE)
+    private final long[] occupancy;
+    
+    /** Number of queens standing in each row. */
+    @Getter(AccessLevel.NONE)
+    private final int[] rowCounts;
+    
+    /** Number of queens standing in each column. */
+    @Getter(AccessLevel.NONE)
+    private final int[] colCounts;
+    
+    /** Number of queens on each diagonal, indexed by {@code row - col + size - 1}. */
+    @Getter(AccessLevel.NONE)
+    private final int[] diagCounts;
+    
+    /** Number of queens on each anti-diagonal, indexed by {@code row + col}. */
+    @Getter(AccessLevel.NONE)
+    private final int[] antiDiagCounts;
+    
+    /** Number of queens currently on the board. */
+    private int queenCount;
+    
+    /** Number of lines (rows, columns, diagonals) currently holding more than one queen. */
+    private int conflictingLines;
+    
+    /**
+     * Shared positions of this board's squares, created lazily by {@link #position(int, int)}.
+     * Volatile because worker threads parse on the same model; the immutable positions themselves
+     * are safely published by their final fields.
      */
-    private ArrayList<ArrayList<SquareState>> board = new ArrayList<ArrayList<SquareState>>();
+    @Getter(AccessLevel.NONE)
+    private volatile Position[] positions;
     
-    /** * Constructor initializing an empty chessboard.
+    /** Longest position string that can address a square of this board (e.g. 2 for "H8"). */
+    @Getter(AccessLevel.NONE)
+    private final int maxNotationLength;
+    
+    /** Listeners notified of every change; empty in headless use, which then costs no events. */
+    @Getter(AccessLevel.NONE)
+    private final List<BoardChangeListener> listeners = new CopyOnWriteArrayList<>();
+    
+    /** Completion analysis of the current board, computed on demand and dropped on every change. */
+    @Getter(AccessLevel.NONE)
+    private CompletionEngine.Completion completion;
+    
+    /** * Constructor initializing an empty 8x8 chessboard.
      */
     public ChessboardModel() {
+        this(DEFAULT_SIZE);
+    }
+    
+    /** * Constructor initializing an empty chessboard of the given dimension.
+     *
+     * @param size The board dimension N (1 to {@link #MAX_SIZE}).
+     * @throws IllegalArgumentException If the size is out of the supported range.
+     */
+    public ChessboardModel(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        this.size = size;
+        this.occupancy = new long[(size * size + 63) >>> 6];
+        this.rowCounts = new int[size];
+        this.colCounts = new int[size];
+        this.diagCounts = new int[2 * size - 1];
+        this.antiDiagCounts = new int[2 * size - 1];
+        this.maxNotationLength = new Position(size - 1, size - 1).toNotation().length();
         clearBoard();
     }
     
     /** * Clears the chessboard by setting all squares to EMPTY.
-     * Uses Stream API to generate rows and columns.
      */
     public void clearBoard() {
-        board.clear(); 
-        
-        IntStream.range(0, SIZE).forEach(i -> {
-            ArrayList<SquareState> row = IntStream.range(0, SIZE)
-                    .mapToObj(j -> SquareState.EMPTY)
-                    .collect(Collectors.toCollection(ArrayList::new));
-            board.add(row);
-        });
+        int[] removed = listeners.isEmpty() ? null : occupiedSquares();
+        Arrays.fill(occupancy, 0L);
+        Arrays.fill(rowCounts, 0);
+        Arrays.fill(colCounts, 0);
+        Arrays.fill(diagCounts, 0);
+        Arrays.fill(antiDiagCounts, 0);
+        queenCount = 0;
+        conflictingLines = 0;
+        completion = null;
+        if (removed != null) {
+            fire(new BoardChangeEvent(this, removed, true));
+        }
+    }
+    
+    /**
+     * Registers a listener notified after every change of the board.
+     *
+     * @param listener The listener.
+     */
+    public void addBoardChangeListener(BoardChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Removes a listener registered with {@link #addBoardChangeListener(BoardChangeListener)}.
+     *
+     * @param listener The listener.
+     */
+    public void removeBoardChangeListener(BoardChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Notifies every listener.
+     *
+     * @param event The change.
+     */
+    private void fire(BoardChangeEvent event) {
+        for (BoardChangeListener listener : listeners) {
+            listener.boardChanged(event);
+        }
+    }
+    
+    /**
+     * Lists the squares holding a queen by scanning the set bits of the bitboard.
+     *
+     * @return The occupied squares in ascending order.
+     */
+    private int[] occupiedSquares() {
+        int[] squares = new int[queenCount];
+        int next = 0;
+        for (int w = 0; w < occupancy.length; w++) {
+            for (long bits = occupancy[w]; bits != 0; bits &= bits - 1) {
+                squares[next++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return squares;
+    }
+    
+    /**
+     * Returns the bitboard index of the given square.
+     *
+     * @param row The row index (0 to size-1).
+     * @param col The column index (0 to size-1).
+     * @return The index of the square's bit.
+     * @throws IndexOutOfBoundsException If the square lies outside the board.
+     */
+    private int square(int row, int col) {
+        Objects.checkIndex(row, size);
+        Objects.checkIndex(col, size);
+        return row * size + col;
+    }
+    
+    /**
+     * Checks whether a queen stands on the given square.
+     *
+     * @param row The row index (0 to size-1).
+     * @param col The column index (0 to size-1).
+     * @return true if the square holds a queen.
+     */
+    public boolean isOccupied(int row, int col) {
+        int sq = square(row, col);
+        return (occupancy[sq >>> 6] & (1L << sq)) != 0;
+    }
+    
+    /**
+     * Returns the whole bitboard of a board of up to 8x8 as a single {@code long}.
+     *
+     * @return The occupancy mask, bit {@code row * size + col} set for every queen.
+     * @throws IllegalStateException If the board does not fit into 64 bits.
+     */
+    public long getOccupancyMask() {
+        if (occupancy.length != 1) {
+            throw new IllegalStateException("Board of size " + size + " does not fit into a 64-bit mask.");
+        }
+        return occupancy[0];
+    }
+    
+    /**
+     * Compatibility view of the board as a list of rows of {@link SquareState}.
+     * The lists are a snapshot built from the bitboard, changes to them do not affect the model.
+     *
+     * @return The current state of the chessboard as a double array list.
+     */
+    public ArrayList<ArrayList<SquareState>> getBoard() {
+        return IntStream.range(0, size)
+                .mapToObj(r -> IntStream.range(0, size)
+                        .mapToObj(c -> isOccupied(r, c) ? SquareState.QUEEN : SquareState.EMPTY)
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .collect(Collectors.toCollection(ArrayList::new));
     }
     
     /**
      * Parses a string representation of a position into a Position object.
+     * Columns are letters (A..Z, then AA..ZZ) and rows are numbers starting at 1 without leading
+     * zeros, e.g. "AB12", so every square has exactly one spelling (apart from the letter case).
+     * Squares on the board are returned as shared, preallocated instances, so parsing does not
+     * allocate. Malformed input (no letters, no digits or characters in the wrong order) is mapped
+     * to the out-of-range position (-1, -1).
      *
      * @param pos The position string (e.g., "A1").
      * @return A {@link Position} record containing row and column indices.
      */
     public Position parse(String pos) {
-        String posUC = pos.toUpperCase();
-        int c = posUC.charAt(0) - 'A';
-        int r = posUC.charAt(1) - '1';
-        return new Position(r,c);
+        long raw = parseRaw(pos, 0, pos.length());
+        if (raw < 0) {
+            return MALFORMED;
+        }
+        int r = (int) (raw >>> 32) - 1;
+        int c = (int) raw - 1;
+        if (r < 0 || r >= size || c < 0 || c >= size) {
+            return new Position(r, c);
+        }
+        return position(r, c);
+    }
+    
+    /**
+     * Parses a position from a region of a character sequence without creating any objects.
+     *
+     * @param pos The characters holding the position, e.g. a line of a submission file.
+     * @param from Index of the first character of the position.
+     * @param to Index after the last character of the position.
+     * @return The square index {@code row * size + col}, or -1 if the position is malformed or off the board.
+     */
+    public int parseSquare(CharSequence pos, int from, int to) {
+        return parseSquare(pos, from, to, size);
+    }
+    
+    /**
+     * Parses a position for a board of the given size without needing a model, e.g. for boards
+     * that keep their own state.
+     *
+     * @param pos The characters holding the position.
+     * @param from Index of the first character of the position.
+     * @param to Index after the last character of the position.
+     * @param size The board dimension.
+     * @return The square index {@code row * size + col}, or -1 if the position is malformed or off the board.
+     */
+    public static int parseSquare(CharSequence pos, int from, int to, int size) {
+        long raw = parseRaw(pos, from, to);
+        if (raw < 0) return -1;
+        int r = (int) (raw >>> 32) - 1;
+        int c = (int) raw - 1;
+        return (r < 0 || r >= size || c < 0 || c >= size) ? -1 : r * size + c;
+    }
+    
+    /**
+     * Returns the shared Position instance of a square of this board.
+     * Instances are created on first use and reused afterwards.
+     *
+     * @param row The row index (0 to size-1).
+     * @param col The column index (0 to size-1).
+     * @return The interned position.
+     * @throws IndexOutOfBoundsException If the square lies outside the board.
+     */
+    public Position position(int row, int col) {
+        int sq = square(row, col);
+        Position[] table = positions;
+        if (table == null) {
+            // A racing thread may install its own table; that only costs a few duplicate positions
+            table = new Position[size * size];
+            positions = table;
+        }
+        Position p = table[sq];
+        if (p == null) {
+            p = new Position(row, col);
+            table[sq] = p;
+        }
+        return p;
+    }
+    
+    /**
+     * Scans column letters followed by row digits.
+     *
+     * @param pos The characters to scan.
+     * @param from Index of the first character.
+     * @param to Index after the last character.
+     * @return The 1-based row number in the upper and the 1-based column number in the lower 32 bits
+     *         (both saturated above {@link #MAX_SIZE}), or -1 if the text is malformed or the row has a leading zero.
+     */
+    private static long parseRaw(CharSequence pos, int from, int to) {
+        int i = from;
+        int c = 0;
+        while (i < to && isLetter(pos.charAt(i))) {
+            c = Math.min(c * 26 + ((pos.charAt(i) & ~0x20) - 'A' + 1), MAX_SIZE + 1);
+            i++;
+        }
+        int letters = i;
+        int r = 0;
+        while (i < to && pos.charAt(i) >= '0' && pos.charAt(i) <= '9') {
+            r = Math.min(r * 10 + (pos.charAt(i) - '0'), MAX_SIZE + 1);
+            i++;
+        }
+        // A leading zero would give a square a second spelling, e.g. "A01" for "A1"
+        if (letters == from || i == letters || i != to || (pos.charAt(letters) == '0' && i - letters > 1)) {
+            return -1;
+        }
+        return ((long) r << 32) | c;
+    }
+    
+    /**
+     * Checks whether a character is an ASCII letter usable in a column name.
+     *
+     * @param ch The character to check.
+     * @return true for A-Z and a-z.
+     */
+    private static boolean isLetter(char ch) {
+        return (ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z');
     }
     
     /** * Places a queen at the specified position on the board.
+     * Updates the line counters so that {@link #isSolutionValid()} stays a constant-time query.
+     * Placing a queen on an already occupied square leaves the board unchanged.
      *
      * @param pos The position string where the queen should be placed.
      */
     public void placeQueen(String pos) {
         Position p = parse(pos);
-        board.get(p.row()).set(p.col(), SquareState.QUEEN);
+        placeQueen(p.row(), p.col());
+    }
+    
+    /** * Places a queen at the specified square on the board.
+     *
+     * @param row The row index (0 to size-1).
+     * @param col The column index (0 to size-1).
+     * @throws IndexOutOfBoundsException If the square lies outside the board.
+     */
+    public void placeQueen(int row, int col) {
+        int sq = square(row, col);
+        long bit = 1L << sq;
+        if ((occupancy[sq >>> 6] & bit) != 0) return;
+        
+        occupancy[sq >>> 6] |= bit;
+        queenCount++;
+        completion = null;
+        addToLine(rowCounts, row);
+        addToLine(colCounts, col);
+        addToLine(diagCounts, row - col + size - 1);
+        addToLine(antiDiagCounts, row + col);
+        if (!listeners.isEmpty()) {
+            fire(new BoardChangeEvent(this, new int[] {sq}, false));
+        }
+    }
+    
+    /**
+     * Removes the queen from a square, e.g. when moves are taken back or replayed.
+     *
+     * @param row The row index (0 to size-1).
+     * @param col The column index (0 to size-1).
+     * @throws IndexOutOfBoundsException If the square lies outside the board.
+     */
+    public void removeQueen(int row, int col) {
+        int sq = square(row, col);
+        long bit = 1L << sq;
+        if ((occupancy[sq >>> 6] & bit) == 0) return;
+        
+        occupancy[sq >>> 6] &= ~bit;
+        queenCount--;
+        completion = null;
+        removeFromLine(rowCounts, row);
+        removeFromLine(colCounts, col);
+        removeFromLine(diagCounts, row - col + size - 1);
+        removeFromLine(antiDiagCounts, row + col);
+        if (!listeners.isEmpty()) {
+            fire(new BoardChangeEvent(this, new int[] {sq}, false));
+        }
+    }
+    
+    /**
+     * Increments the queen counter of a single line and tracks when it becomes conflicting.
+     *
+     * @param counts The counters of one line family (rows, columns or diagonals).
+     * @param index The index of the line within the family.
+     */
+    private void addToLine(int[] counts, int index) {
+        if (++counts[index] == 2) {
+            conflictingLines++;
+        }
+    }
+    
+    /**
+     * Decrements the queen counter of a single line and tracks when it stops being conflicting.
+     *
+     * @param counts The counters of one line family (rows, columns or diagonals).
+     * @param index The index of the line within the family.
+     */
+    private void removeFromLine(int[] counts, int index) {
+        if (counts[index]-- == 2) {
+            conflictingLines--;
+        }
+    }
+    
+    /**
+     * Checks a position string without throwing, for bulk validation paths.
+     * The checks run in order: length, format and range, occupancy, attacks. Both OK and ATTACKED
+     * are legal placements; ATTACKED only tells that the queen would break the solution.
+     *
+     * @param pos The position string to check.
+     * @return The first failed check, or {@link PlacementResult#OK}.
+     */
+    public PlacementResult checkPlacement(String pos) {
+        if (pos == null || pos.length() < 2 || pos.length() > maxNotationLength) {
+            return PlacementResult.BAD_LENGTH;
+        }
+        Position p = parse(pos);
+        return checkPlacement(p.row(), p.col());
+    }
+    
+    /**
+     * Checks a position held in a region of a character sequence, without throwing or allocating.
+     *
+     * @param pos The characters holding the position.
+     * @param from Index of the first character of the position.
+     * @param to Index after the last character of the position.
+     * @return The first failed check, or {@link PlacementResult#OK}.
+     */
+    public PlacementResult checkPlacement(CharSequence pos, int from, int to) {
+        if (to - from < 2 || to - from > maxNotationLength) {
+            return PlacementResult.BAD_LENGTH;
+        }
+        long raw = parseRaw(pos, from, to);
+        if (raw < 0) {
+            return PlacementResult.OUT_OF_RANGE;
+        }
+        return checkPlacement((int) (raw >>> 32) - 1, (int) raw - 1);
+    }
+    
+    /**
+     * Parses and checks a position in one pass, for bulk paths that place the queen afterwards.
+     * Works like {@link #checkPlacement(CharSequence, int, int)} but returns the parsed square,
+     * so the position does not have to be parsed a second time.
+     *
+     * @param pos The characters holding the position.
+     * @param from Index of the first character of the position.
+     * @param to Index after the last character of the position.
+     * @return The square index {@code row * size + col} if the placement is legal (OK or ATTACKED),
+     *         otherwise {@code -1 - result.ordinal()} of the rejecting {@link PlacementResult}.
+     */
+    public int checkSquare(CharSequence pos, int from, int to) {
+        if (to - from < 2 || to - from > maxNotationLength) {
+            return -1 - PlacementResult.BAD_LENGTH.ordinal();
+        }
+        long raw = parseRaw(pos, from, to);
+        if (raw < 0) {
+            return -1 - PlacementResult.OUT_OF_RANGE.ordinal();
+        }
+        int row = (int) (raw >>> 32) - 1;
+        int col = (int) raw - 1;
+        PlacementResult result = checkPlacement(row, col);
+        return result.isRejected() ? -1 - result.ordinal() : row * size + col;
+    }
+    
+    /**
+     * Checks a square without throwing.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return OUT_OF_RANGE, OCCUPIED, ATTACKED or OK.
+     */
+    public PlacementResult checkPlacement(int row, int col) {
+        if (col < 0 || col >= size || row < 0 || row >= size) {
+            return PlacementResult.OUT_OF_RANGE;
+        }
+        if (isOccupied(row, col)) {
+            return PlacementResult.OCCUPIED;
+        }
+        if (rowCounts[row] + colCounts[col] + diagCounts[row - col + size - 1] + antiDiagCounts[row + col] > 0) {
+            return PlacementResult.ATTACKED;
+        }
+        return PlacementResult.OK;
     }
     
     /**
      * Validates if a position string is syntactically correct and if the square is empty.
+     * Thin wrapper around {@link #checkPlacement(String)} for callers that prefer exceptions;
+     * attacked squares are accepted.
      *
      * @param pos The position string to validate.
      * @throws InvalidPositionException If the input is null, bad length, out of bounds, or occupied.
      */
     public void isValidPlacement(String pos) throws InvalidPositionException {
-        // Checks if given position is not null and is of correct length
-        if (pos == null || pos.length() != 2) {
-            throw new InvalidPositionException("User input is too short or too long.");
-        }
-        
-        Position p = parse(pos);
-        
-        // Checks if given position is in the correct format: XY where X=[A,H] and Y=[1,8]
-        if (p.col() < 0 || p.col() > 7 || p.row() < 0 || p.row() > 7) {
-            throw new InvalidPositionException("Position out of range.");
+        PlacementResult result = checkPlacement(pos);
+        if (result.isRejected()) {
+            throw new InvalidPositionException(result.getMessage());
         }
-        
-        // Checks if given position is occupied
-        if (board.get(p.row()).get(p.col()) != SquareState.EMPTY) {
-            throw new InvalidPositionException("Position occupied by other queen");
-        }   
-    }
-
-    /** * Scans the chessboard and returns a list of positions occupied by queens.
-     * <p>
-     * <b>Stream API Implementation:</b>
-     * This method uses Java Streams and lambda expressions to filter the collection
-     * and map coordinates to Position objects.
-     * </p>
-     *
-     * @return An ArrayList of {@link Position} objects representing queen locations.
-     */
-    private ArrayList<Position> getQueenPositions() {
-        return IntStream.range(0, SIZE)
-                .boxed()
-                .flatMap(r -> IntStream.range(0, SIZE)
-                        .filter(c -> board.get(r).get(c) == SquareState.QUEEN)
-                        .mapToObj(c -> new Position(r, c)))
-                .collect(Collectors.toCollection(ArrayList::new));
     }
     
     /** * Checks if the current arrangement of queens is a valid solution to the puzzle.
-     * A solution is valid if no queen attacks another.
+     * A solution is valid if no queen attacks another, i.e. no row, column or diagonal
+     * holds more than one queen. A full board of up to 8x8 is answered by a single probe of the
+     * {@link SolutionIndex}, any other board in constant time from the line counters.
      *
      * @return true if the solution is valid, false otherwise.
      */
     public boolean isSolutionValid() {
-        ArrayList<Position> foundQueens = getQueenPositions();
-        
-        // Requirement: Keep the for-each loop here
-        for (Position p : foundQueens) {
-            if (attacksAnotherQueen(p))
-                return false;
+        if (queenCount == size && size <= SolutionIndex.MAX_INDEXED_SIZE) {
+            return SolutionIndex.forSize(size).contains(occupancy[0]);
         }
-        
-        return true;
+        return conflictingLines == 0;
     }
     
-    /** * Checks whether a specific queen attacks any other queen on the board.
-     * Checks rows, columns, and diagonals.
+    /**
+     * Classifies a finished board: its solution id, symmetry class and class size.
      *
-     * @param p The position of the queen to check.
-     * @return true if the queen attacks another, false otherwise.
+     * @return The classification, or {@code null} if the board is not a complete solution
+     *         or too large for the {@link SolutionIndex}.
      */
-    private boolean attacksAnotherQueen(Position p) {
-        // Check row and column
-        for (int i = 0; i < SIZE; i++) {
-            if (i != p.col() && board.get(p.row()).get(i) == SquareState.QUEEN) return true;
-            if (i != p.row() && board.get(i).get(p.col()) == SquareState.QUEEN) return true;
+    public SolutionIndex.SolutionInfo getSolutionInfo() {
+        if (queenCount != size || size > SolutionIndex.MAX_INDEXED_SIZE) return null;
+        return SolutionIndex.forSize(size).lookup(occupancy[0]);
+    }
+    
+    @Override
+    public boolean isQueen(int row, int col) {
+        return isOccupied(row, col);
+    }
+    
+    @Override
+    public int attackCount(int row, int col) {
+        int self = isOccupied(row, col) ? 1 : 0;
+        return rowCounts[row] + colCounts[col] + diagCounts[row - col + size - 1] + antiDiagCounts[row + col] - 4 * self;
+    }
+    
+    /**
+     * Creates an independent board with the same size and queens, e.g. for analysis on another thread.
+     *
+     * @return The copy.
+     */
+    public ChessboardModel copy() {
+        ChessboardModel copy = new ChessboardModel(size);
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (isOccupied(r, c)) copy.placeQueen(r, c);
+            }
         }
-
-        // Check diagonals
-        int[] dr = {-1, -1, 1, 1};
-        int[] dc = {-1, 1, -1, 1};
-        for (int d = 0; d < 4; d++) {
-            int r = p.row() + dr[d];
-            int c = p.col() + dc[d];
-            while (r >= 0 && r < SIZE && c >= 0 && c < SIZE) {
-                if (board.get(r).get(c) == SquareState.QUEEN) return true;
-                r += dr[d];
-                c += dc[d];
+        return copy;
+    }
+    
+    /**
+     * Analyzes how the current board can still be completed, see {@link CompletionEngine}.
+     * The result is cached until the board changes, so views can poll it cheaply.
+     *
+     * @return The completion analysis of the board.
+     */
+    public CompletionEngine.Completion getCompletion() {
+        if (completion == null) {
+            completion = CompletionEngine.analyze(this);
+        }
+        return completion;
+    }
+    
+    /**
+     * Counts the solutions that extend the queens currently on the board.
+     *
+     * @return The number of completions, or -1 if the board is too large or too open to count quickly.
+     */
+    public long getCompletionCount() {
+        return getCompletion().count();
+    }
+    
+    /**
+     * Lists the empty squares on which a queen still leads to at least one solution
+     * (or, when the completions cannot be counted quickly, that no queen attacks).
+     *
+     * @return The safe squares in row-major order.
+     */
+    public List<Position> getSafeSquares() {
+        CompletionEngine.Completion c = getCompletion();
+        List<Position> safe = new ArrayList<>();
+        for (int r = 0; r < size; r++) {
+            for (int col = 0; col < size; col++) {
+                if (c.isSafe(r, col)) safe.add(position(r, col));
             }
         }
-        return false;
+        return safe;
     }
-}
\ No newline at end of file
+}
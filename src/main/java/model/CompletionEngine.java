@@ -0,0 +1,358 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Counts the completions of a partially filled board and finds the squares that keep it solvable.
+ * <p>
+ * The queens already on the board may stand anywhere. Their rows are fixed, and every square they
+ * attack is blocked in the other rows, so the search fills the board row by row with the usual
+ * column and diagonal bitmasks. The number of completions below each (cols, diag1, diag2) state
+ * is memoized; the row is implied by the number of taken columns, so the three masks are packed
+ * into one {@code long} key of a primitive open-addressing table. A second, layered pass multiplies the number of ways to reach each
+ * state by the completions below it, which yields the completions through every square at once.
+ * </p>
+ * <p>
+ * Boards up to {@link #MAX_SIZE} are analyzed exactly as long as the search stays within its node
+ * budget; otherwise the result is marked as inexact and only lists the unattacked squares.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+public final class CompletionEngine {
+    
+    /** Largest board whose three masks can be packed into one {@code long} key. */
+    public static final int MAX_SIZE = 21;
+    
+    /** Default number of searched states before the engine gives up (about 100 ms of work). */
+    public static final long DEFAULT_NODE_BUDGET = 500_000;
+    
+    /** Number of searched states between two polls of the cancellation flag, minus one. */
+    private static final long CANCEL_CHECK_MASK = (1 << 10) - 1;
+    
+    /**
+     * Result of the analysis of a board.
+     *
+     * @param size The board dimension.
+     * @param exact true if the counts are exact, false if the board was too large or too open.
+     * @param count The number of completions, or -1 if not exact.
+     * @param squareCounts The number of completions through each empty square, by {@code row * size + col};
+     *                     if not exact, 1 for every empty unattacked square and 0 elsewhere.
+     */
+    public record Completion(int size, boolean exact, long count, long[] squareCounts) {
+        
+        /**
+         * Checks whether a queen can still be placed on a square.
+         *
+         * @param row The row index.
+         * @param col The column index.
+         * @return true if the square lies on at least one completion (or, if not exact, is unattacked).
+         */
+        public boolean isSafe(int row, int col) {
+            return squareCounts[row * size + col] > 0;
+        }
+    }
+    
+    /** Thrown internally when the search exceeds its budget. */
+    private static final class BudgetExceeded extends RuntimeException {
+        BudgetExceeded() {
+            super(null, null, false, false);
+        }
+    }
+    
+    /** The mask of all columns. */
+    private final int full;
+    
+    /** Board dimension. */
+    private final int size;
+    
+    /** Column of the queen standing in each row, or -1 for free rows. */
+    private final int[] fixed;
+    
+    /** Squares of each row attacked by the queens already on the board. */
+    private final int[] blocked;
+    
+    /** Completions below each state, by packed masks. */
+    private final StateTable memo = new StateTable();
+    
+    /** Remaining number of states that may be searched. */
+    private long budget;
+    
+    /** Tells whether the caller gave up on the analysis. */
+    private final BooleanSupplier cancelled;
+    
+    /**
+     * @param size The board dimension.
+     * @param fixed Column of the queen standing in each row, or -1 for free rows.
+     * @param budget The maximum number of searched states.
+     * @param cancelled Polled during the search; true stops it.
+     */
+    private CompletionEngine(int size, int[] fixed, long budget, BooleanSupplier cancelled) {
+        this.size = size;
+        this.full = (1 << size) - 1;
+        this.fixed = fixed;
+        this.blocked = new int[size];
+        this.budget = budget;
+        this.cancelled = cancelled;
+        for (int r = 0; r < size; r++) {
+            if (fixed[r] < 0) continue;
+            for (int other = 0; other < size; other++) {
+                int distance = Math.abs(other - r);
+                int attacked = (1 << fixed[r]) | ((1 << fixed[r]) << distance) | ((1 << fixed[r]) >>> distance);
+                blocked[other] |= attacked & full;
+            }
+        }
+    }
+    
+    /**
+     * Analyzes a board with the default node budget.
+     *
+     * @param model The board.
+     * @return The completions of the board.
+     */
+    public static Completion analyze(ChessboardModel model) {
+        return analyze(model, DEFAULT_NODE_BUDGET);
+    }
+    
+    /**
+     * Analyzes a board.
+     *
+     * @param model The board.
+     * @param nodeBudget The maximum number of searched states before falling back to an inexact result.
+     * @return The completions of the board.
+     */
+    public static Completion analyze(ChessboardModel model, long nodeBudget) {
+        return analyze(model, nodeBudget, () -> false);
+    }
+    
+    /**
+     * Analyzes a board that may be given up on, e.g. by a superseded background job.
+     *
+     * @param model The board.
+     * @param nodeBudget The maximum number of searched states before falling back to an inexact result.
+     * @param cancelled Polled every thousand or so searched states; once it returns true the search stops.
+     * @return The completions of the board.
+     * @throws CancellationException If the analysis was cancelled.
+     */
+    public static Completion analyze(ChessboardModel model, long nodeBudget, BooleanSupplier cancelled) {
+        int n = model.getSize();
+        if (model.getConflictingLines() > 0) {
+            return new Completion(n, true, 0, new long[n * n]);
+        }
+        if (n > MAX_SIZE) {
+            return unattacked(model);
+        }
+        
+        int[] fixed = new int[n];
+        for (int r = 0; r < n; r++) {
+            fixed[r] = -1;
+            for (int c = 0; c < n; c++) {
+                if (model.isOccupied(r, c)) fixed[r] = c;
+            }
+        }
+        try {
+            return new CompletionEngine(n, fixed, nodeBudget, cancelled).run();
+        } catch (BudgetExceeded ex) {
+            return unattacked(model);
+        }
+    }
+    
+    /**
+     * Builds the inexact result listing every empty square no queen attacks.
+     *
+     * @param model The board.
+     * @return The inexact completion.
+     */
+    private static Completion unattacked(ChessboardModel model) {
+        int n = model.getSize();
+        long[] squares = new long[n * n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (model.checkPlacement(r, c) == PlacementResult.OK) squares[r * n + c] = 1;
+            }
+        }
+        return new Completion(n, false, -1, squares);
+    }
+    
+    /**
+     * Counts the completions and distributes them over the squares, one row layer at a time.
+     *
+     * @return The exact completion.
+     */
+    private Completion run() {
+        long[] squares = new long[size * size];
+        long total = countFrom(0, 0, 0, 0);
+        
+        // Number of ways to reach each state of the current row that still has completions
+        StateTable layer = new StateTable();
+        if (total > 0) layer.add(0L, 1L);
+        for (int row = 0; row < size && layer.size > 0; row++) {
+            StateTable next = new StateTable();
+            for (int slot = 0; slot < layer.keys.length; slot++) {
+                long key = layer.keys[slot];
+                if (key == StateTable.EMPTY) continue;
+                long ways = layer.values[slot];
+                int cols = (int) (key & full);
+                int diag1 = (int) (key >>> MAX_SIZE) & full;
+                int diag2 = (int) (key >>> (2 * MAX_SIZE)) & full;
+                int avail = candidates(row, cols, diag1, diag2);
+                while (avail != 0) {
+                    int bit = avail & -avail;
+                    avail ^= bit;
+                    int nc = cols | bit, nd1 = ((diag1 | bit) << 1) & full, nd2 = (diag2 | bit) >>> 1;
+                    long below = countFrom(row + 1, nc, nd1, nd2);
+                    if (below == 0) continue;
+                    if (fixed[row] < 0) {
+                        squares[row * size + Integer.numberOfTrailingZeros(bit)] += ways * below;
+                    }
+                    next.add(pack(nc, nd1, nd2), ways);
+                }
+            }
+            layer = next;
+        }
+        return new Completion(size, true, total, squares);
+    }
+    
+    /**
+     * Counts the completions below a state, memoized.
+     *
+     * @param row The row being filled.
+     * @param cols Columns already taken.
+     * @param diag1 Squares of the row attacked along the down-right diagonals.
+     * @param diag2 Squares of the row attacked along the down-left diagonals.
+     * @return The number of ways to fill the remaining rows.
+     */
+    private long countFrom(int row, int cols, int diag1, int diag2) {
+        if (row == size) return 1;
+        
+        long key = pack(cols, diag1, diag2);
+        long cached = memo.get(key);
+        if (cached >= 0) return cached;
+        if (--budget < 0) throw new BudgetExceeded();
+        if ((budget & CANCEL_CHECK_MASK) == 0 && cancelled.getAsBoolean()) throw new CancellationException("Analysis cancelled");
+        
+        long total = 0;
+        int avail = candidates(row, cols, diag1, diag2);
+        while (avail != 0) {
+            int bit = avail & -avail;
+            avail ^= bit;
+            total += countFrom(row + 1, cols | bit, ((diag1 | bit) << 1) & full, (diag2 | bit) >>> 1);
+        }
+        memo.add(key, total);
+        return total;
+    }
+    
+    /**
+     * Returns the columns a queen may take in a row: the fixed queen if it is not attacked,
+     * or every free square not attacked by the queens above and the fixed queens.
+     *
+     * @param row The row being filled.
+     * @param cols Columns already taken.
+     * @param diag1 Squares of the row attacked along the down-right diagonals.
+     * @param diag2 Squares of the row attacked along the down-left diagonals.
+     * @return The mask of candidate columns.
+     */
+    private int candidates(int row, int cols, int diag1, int diag2) {
+        int free = full & ~(cols | diag1 | diag2);
+        return fixed[row] >= 0 ? free & (1 << fixed[row]) : free & ~blocked[row];
+    }
+    
+    /**
+     * Packs the three masks of a state into one key.
+     *
+     * @param cols Columns already taken.
+     * @param diag1 Down-right diagonal mask.
+     * @param diag2 Down-left diagonal mask.
+     * @return The key.
+     */
+    private static long pack(int cols, int diag1, int diag2) {
+        return cols | (long) diag1 << MAX_SIZE | (long) diag2 << (2 * MAX_SIZE);
+    }
+    
+    /**
+     * Open-addressing map from packed state keys to non-negative counts, without boxing.
+     */
+    private static final class StateTable {
+        
+        /** Marker of an empty slot; packed keys never set the sign bit. */
+        static final long EMPTY = -1L;
+        
+        /** Keys by slot. */
+        long[] keys = newKeys(1 << 10);
+        
+        /** Values by slot. */
+        long[] values = new long[1 << 10];
+        
+        /** Number of stored keys. */
+        int size;
+        
+        /**
+         * @param key The packed state.
+         * @return The stored value, or -1 if the key is absent.
+         */
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+                if (keys[slot] == EMPTY) return -1;
+            }
+        }
+        
+        /**
+         * Adds a value to the one stored for a key, inserting the key if it is absent.
+         *
+         * @param key The packed state.
+         * @param value The value to add.
+         */
+        void add(long key, long value) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != key && keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    values[slot] = value;
+                    grow();
+                    return;
+                }
+            }
+            values[slot] += value;
+        }
+        
+        /**
+         * Doubles the table, keeping the load factor at or below one half.
+         */
+        private void grow() {
+            long[] oldKeys = keys, oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new long[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) add(oldKeys[i], oldValues[i]);
+            }
+        }
+        
+        /**
+         * @param capacity The number of slots.
+         * @return A key array with every slot empty.
+         */
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+        
+        /**
+         * @param key The packed state.
+         * @return A well-mixed hash of the key.
+         */
+        private static int hash(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Exact cover (Algorithm X with Dancing Links) solver for constrained boards.
+ * <p>
+ * Every allowed square is an option covering four items: its row and column (primary, each must
+ * be covered exactly once) and its two diagonals (secondary, covered at most once). Queens already
+ * on the {@link ChessboardModel} are selected before the search starts, and blocked squares simply
+ * have no option, so pre-placed, forbidden and must-hold squares are all expressed in the matrix
+ * instead of in the search. The links live in primitive {@code int} arrays (one node pool, no
+ * objects per node), and the search always branches on the primary item with the fewest options.
+ * </p>
+ * <p>
+ * {@link #cancel()} may be called from another thread; the running search unwinds, restores the
+ * matrix and throws {@link CancellationException}. A cancelled solver stays cancelled.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public class DancingLinksSolver {
+    
+    /** Board dimension. */
+    private final int size;
+    
+    /** Index of the first secondary item; items 1 to this - 1 are primary. */
+    @Getter(AccessLevel.NONE)
+    private final int firstSecondary;
+    
+    /** Left links of headers and nodes. */
+    @Getter(AccessLevel.NONE)
+    private final int[] left;
+    
+    /** Right links of headers and nodes. */
+    @Getter(AccessLevel.NONE)
+    private final int[] right;
+    
+    /** Up links of headers and nodes. */
+    @Getter(AccessLevel.NONE)
+    private final int[] up;
+    
+    /** Down links of headers and nodes. */
+    @Getter(AccessLevel.NONE)
+    private final int[] down;
+    
+    /** Item (header) of each node. */
+    @Getter(AccessLevel.NONE)
+    private final int[] item;
+    
+    /** Square ({@code row * size + col}) of each node's option. */
+    @Getter(AccessLevel.NONE)
+    private final int[] square;
+    
+    /** Number of options still covering each item. */
+    @Getter(AccessLevel.NONE)
+    private final int[] length;
+    
+    /** Column of the queen in each row: pre-placed queens first, the search fills the rest. */
+    @Getter(AccessLevel.NONE)
+    private final int[] queens;
+    
+    /** Whether the pre-placed queens already rule out every completion. */
+    @Getter(AccessLevel.NONE)
+    private final boolean infeasible;
+    
+    /** Set by {@link #cancel()}. */
+    private volatile boolean cancelled;
+    
+    /** Number of options tried by the searches so far. */
+    private long optionsTried;
+    
+    /** Whether the running search stops at its first solution. */
+    @Getter(AccessLevel.NONE)
+    private boolean firstOnly;
+    
+    /**
+     * Constructs a solver completing the queens on a board.
+     *
+     * @param model The board; its queens are pre-placed.
+     */
+    public DancingLinksSolver(ChessboardModel model) {
+        this(model, List.of());
+    }
+    
+    /**
+     * Constructs a solver completing the queens on a board without using the blocked squares.
+     *
+     * @param model The board; its queens are pre-placed.
+     * @param blocked Squares on which no queen may stand.
+     * @throws IndexOutOfBoundsException If a blocked square lies outside the board.
+     */
+    public DancingLinksSolver(ChessboardModel model, Collection<Position> blocked) {
+        int n = model.getSize();
+        this.size = n;
+        boolean[] forbidden = new boolean[n * n];
+        for (Position p : blocked) {
+            forbidden[Objects.checkIndex(p.row(), n) * n + Objects.checkIndex(p.col(), n)] = true;
+        }
+        
+        // Items: root 0, rows 1..n, columns n+1..2n, then 2n-1 diagonals and 2n-1 anti-diagonals
+        int items = 2 * n + 2 * (2 * n - 1);
+        this.firstSecondary = 2 * n + 1;
+        int nodes = items + 1 + 4 * n * n;
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.up = new int[nodes];
+        this.down = new int[nodes];
+        this.item = new int[nodes];
+        this.square = new int[nodes];
+        this.length = new int[items + 1];
+        this.queens = new int[n];
+        
+        for (int i = 0; i <= items; i++) {
+            up[i] = down[i] = i;
+            boolean primary = i < firstSecondary;
+            left[i] = primary ? (i == 0 ? firstSecondary - 1 : i - 1) : i;
+            right[i] = primary ? (i == firstSecondary - 1 ? 0 : i + 1) : i;
+        }
+        
+        int[] option = new int[n * n];
+        int next = items + 1;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                if (forbidden[r * n + c]) continue;
+                option[r * n + c] = next;
+                int[] cover = {1 + r, 1 + n + c, firstSecondary + r - c + n - 1, firstSecondary + 2 * n - 1 + r + c};
+                for (int k = 0; k < 4; k++, next++) {
+                    int head = cover[k];
+                    item[next] = head;
+                    square[next] = r * n + c;
+                    up[next] = up[head];
+                    down[next] = head;
+                    down[up[head]] = next;
+                    up[head] = next;
+                    length[head]++;
+                    left[next] = k == 0 ? next + 3 : next - 1;
+                    right[next] = k == 3 ? next - 3 : next + 1;
+                }
+            }
+        }
+        
+        // Select the options of the queens already on the board
+        boolean impossible = model.getConflictingLines() > 0;
+        for (int r = 0; r < n && !impossible; r++) {
+            for (int c = 0; c < n && !impossible; c++) {
+                if (!model.isOccupied(r, c)) continue;
+                if (forbidden[r * n + c]) {
+                    impossible = true;
+                } else {
+                    queens[r] = c;
+                    int first = option[r * n + c];
+                    int j = first;
+                    do {
+                        cover(item[j]);
+                        j = right[j];
+                    } while (j != first);
+                }
+            }
+        }
+        this.infeasible = impossible;
+    }
+    
+    /**
+     * Counts the completions of the board.
+     *
+     * @return The number of solutions extending the pre-placed queens.
+     * @throws CancellationException If the solver was cancelled.
+     */
+    public long count() {
+        return forEachSolution(null);
+    }
+    
+    /**
+     * Calls the action for every completion of the board.
+     * The array passed to the action holds the column of the queen in each row and is
+     * reused between calls, so it has to be copied if it is kept.
+     *
+     * @param action The consumer receiving each solution, or null to count only.
+     * @return The number of solutions.
+     * @throws CancellationException If the solver was cancelled.
+     */
+    public long forEachSolution(Consumer<int[]> action) {
+        long found = infeasible ? 0 : search(action);
+        if (cancelled) {
+            throw new CancellationException("Search cancelled");
+        }
+        return found;
+    }
+    
+    /**
+     * Finds one completion of the board: the first the search reaches. The search branches on the
+     * constraint with the fewest options left, so this is not in general the lexicographically
+     * first completion, but the same board always gives the same one.
+     *
+     * @return The column of the queen in each row, or null if the board cannot be completed.
+     * @throws CancellationException If the solver was cancelled.
+     */
+    public int[] solve() {
+        int[][] first = new int[1][];
+        firstOnly = true;
+        try {
+            forEachSolution(queens -> first[0] = queens.clone());
+        } finally {
+            firstOnly = false;
+        }
+        return first[0];
+    }
+    
+    /**
+     * Asks a running or future search to stop.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    /**
+     * Covers the primary item with the fewest options and tries each of them in turn.
+     *
+     * @param action The consumer receiving each solution, or null.
+     * @return The number of solutions below the current selection.
+     */
+    private long search(Consumer<int[]> action) {
+        if (right[0] == 0) {
+            if (action != null) action.accept(queens);
+            return 1;
+        }
+        
+        int best = right[0];
+        for (int i = right[best]; i != 0; i = right[i]) {
+            if (length[i] < length[best]) best = i;
+        }
+        if (length[best] == 0) return 0;
+        
+        long found = 0;
+        cover(best);
+        for (int r = down[best]; r != best && !cancelled && (found == 0 || !firstOnly); r = down[r]) {
+            optionsTried++;
+            queens[square[r] / size] = square[r] % size;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(item[j]);
+            }
+            found += search(action);
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(item[j]);
+            }
+        }
+        uncover(best);
+        return found;
+    }
+    
+    /**
+     * Removes an item and every option covering it from the matrix.
+     *
+     * @param c The item header.
+     */
+    private void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                length[item[j]]--;
+            }
+        }
+    }
+    
+    /**
+     * Restores an item removed by {@link #cover(int)}, in reverse order.
+     *
+     * @param c The item header.
+     */
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                length[item[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+}
@@ -0,0 +1,374 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Append-only audit trail of board changes, written as fixed-width binary records.
+ * <p>
+ * The file starts with a {@link #HEADER_SIZE}-byte header (magic, version, record size) followed by
+ * {@link #RECORD_SIZE}-byte little-endian records: session id (8 bytes), wall-clock time in
+ * milliseconds (8), square {@code row * size + col} (4), board size (2), event type (1) and one
+ * reserved byte. A move only encodes its record into an in-memory buffer; a background thread
+ * writes the buffered records of all sessions with one {@link FileChannel} write and one
+ * {@code force} every flush interval (group commit), so the move path never waits for the disk.
+ * Records of the last interval are lost if the machine crashes; {@link #sync()} makes everything
+ * appended so far durable at once. {@link JournalReader} replays the file.
+ * </p>
+ * <p>
+ * A failed write moves the file back to the end of its last whole record and keeps the unwritten
+ * records buffered for the next flush, so the file never holds a torn record and no record is
+ * dropped. The first failure of the background commit is thrown by the next {@link #append},
+ * {@link #sync()} or {@link #close()}.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public final class EventJournal implements AutoCloseable {
+
+    /** Marks the start of a journal file ("NQJ1"). */
+    public static final int MAGIC = 0x314A514E;
+
+    /** Format version; readers reject other versions. */
+    public static final int VERSION = 1;
+
+    /** Size of the file header in bytes. */
+    public static final int HEADER_SIZE = 16;
+
+    /** Size of one record in bytes. */
+    public static final int RECORD_SIZE = 24;
+
+    /** A queen was placed on the square. */
+    public static final byte PLACE = 1;
+
+    /** The queen on the square was removed. */
+    public static final byte REMOVE = 2;
+
+    /** The board was cleared; the square is unused. */
+    public static final byte CLEAR = 3;
+
+    /** Default time between two group commits. */
+    public static final long DEFAULT_FLUSH_MILLIS = 10;
+
+    /** Number of records buffered before an append has to write them itself. */
+    private static final int BUFFERED_RECORDS = 1 << 14;
+
+    /** The journal file. */
+    @Getter(AccessLevel.NONE)
+    private final FileChannel channel;
+
+    /** Guards {@link #active}. */
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock bufferLock = new ReentrantLock();
+
+    /** Serializes writes to the channel. */
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /** Buffer receiving new records. */
+    @Getter(AccessLevel.NONE)
+    private ByteBuffer active = newBuffer();
+
+    /** Buffer being written to the file; swapped with {@link #active} on every flush. */
+    @Getter(AccessLevel.NONE)
+    private ByteBuffer spare = newBuffer();
+
+    /** Whether {@link #spare} still holds the records of a failed write. */
+    @Getter(AccessLevel.NONE)
+    private boolean unwritten;
+
+    /** End of the last whole record in the file, where the next write starts. */
+    @Getter(AccessLevel.NONE)
+    private long length;
+
+    /** Whether records were written since the last force. */
+    @Getter(AccessLevel.NONE)
+    private boolean dirty;
+
+    /** Runs the periodic group commit. */
+    @Getter(AccessLevel.NONE)
+    private final ScheduledExecutorService committer;
+
+    /** First failure of the background commit that no caller has seen yet. */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    /** Number of records appended by this instance. */
+    private volatile long appended;
+
+    /** Number of forces to disk. */
+    private volatile long commits;
+
+    /**
+     * Opens a journal with the default flush interval, creating the file if needed.
+     *
+     * @param file The journal file; new records are appended to existing ones.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    public EventJournal(Path file) throws IOException {
+        this(file, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * Opens a journal, creating the file if needed.
+     * A partial record left by a crash at the end of the file is cut off.
+     *
+     * @param file The journal file; new records are appended to existing ones.
+     * @param flushMillis Time between two group commits.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    public EventJournal(Path file, long flushMillis) throws IOException {
+        this(open(file), flushMillis);
+    }
+
+    /**
+     * Writes to an open journal positioned at the end of its last record.
+     *
+     * @param channel The journal file.
+     * @param flushMillis Time between two group commits.
+     * @throws IOException If the position of the channel cannot be read.
+     */
+    EventJournal(FileChannel channel, long flushMillis) throws IOException {
+        this.channel = channel;
+        this.length = channel.position();
+        this.committer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "journal-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a journal file, writing the header of a new one and cutting off a partial last record.
+     *
+     * @param file The journal file.
+     * @return The channel, positioned at the end of the file.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    private static FileChannel open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long length = channel.size();
+            if (length == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+                while (header.hasRemaining()) channel.write(header);
+                channel.force(true);
+            } else {
+                JournalReader.checkHeader(channel);
+                long whole = HEADER_SIZE + (length - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+                if (whole != length) channel.truncate(whole);
+            }
+            channel.position(channel.size());
+            return channel;
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Appends one record. Thread-safe; returns without waiting for the disk.
+     *
+     * @param sessionId The session the board belongs to.
+     * @param type {@link #PLACE}, {@link #REMOVE} or {@link #CLEAR}.
+     * @param size The board dimension.
+     * @param square The square {@code row * size + col}, or 0 for {@link #CLEAR}.
+     * @throws IOException If the buffer was full and writing it failed, or a background commit
+     *         failed since the last call; in the latter case the record is still buffered.
+     */
+    public void append(long sessionId, byte type, int size, int square) throws IOException {
+        long now = System.currentTimeMillis();
+        while (true) {
+            bufferLock.lock();
+            try {
+                if (active.remaining() >= RECORD_SIZE) {
+                    active.putLong(sessionId).putLong(now).putInt(square).putShort((short) size).put(type).put((byte) 0);
+                    appended++;
+                    break;
+                }
+            } finally {
+                bufferLock.unlock();
+            }
+            flush();
+        }
+        throwFailure();
+    }
+
+    /**
+     * Records every change of a model from now on.
+     *
+     * @param model The board.
+     * @param sessionId The id its records are filed under.
+     * @return The registered listener, for {@link ChessboardModel#removeBoardChangeListener(BoardChangeListener)}.
+     */
+    public BoardChangeListener record(ChessboardModel model, long sessionId) {
+        BoardChangeListener listener = event -> {
+            try {
+                int size = event.source().getSize();
+                if (event.cleared()) {
+                    append(sessionId, CLEAR, size, 0);
+                    return;
+                }
+                for (int i = 0; i < event.squares().length; i++) {
+                    boolean placed = event.source().isOccupied(event.row(i), event.col(i));
+                    append(sessionId, placed ? PLACE : REMOVE, size, event.squares()[i]);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+        model.addBoardChangeListener(listener);
+        return listener;
+    }
+
+    /**
+     * Writes and forces every record appended so far.
+     *
+     * @throws IOException If writing fails, or a background commit failed since the last call.
+     */
+    public void sync() throws IOException {
+        commit();
+        throwFailure();
+    }
+
+    /**
+     * Stops the group commit, makes every record durable and closes the file.
+     *
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        committer.shutdown();
+        try {
+            committer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes and forces every record appended so far.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void commit() throws IOException {
+        writeLock.lock();
+        try {
+            flush();
+            if (dirty) {
+                channel.force(false);
+                dirty = false;
+                commits++;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the records left by a failed write, then swaps the buffers and writes the filled one;
+     * appends continue into the other meanwhile.
+     *
+     * @throws IOException If writing fails; the unwritten records stay buffered.
+     */
+    private void flush() throws IOException {
+        writeLock.lock();
+        try {
+            if (unwritten) {
+                write();
+            }
+            bufferLock.lock();
+            try {
+                ByteBuffer filled = active;
+                active = spare;
+                spare = filled;
+            } finally {
+                bufferLock.unlock();
+            }
+            spare.flip();
+            unwritten = spare.hasRemaining();
+            write();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes {@link #spare} after the last whole record. On failure the file is cut back to that
+     * record and the buffer is rewound for the next attempt.
+     *
+     * @throws IOException If writing fails.
+     */
+    private void write() throws IOException {
+        long end = length;
+        dirty |= spare.hasRemaining();
+        try {
+            while (spare.hasRemaining()) {
+                end += channel.write(spare, end);
+            }
+        } catch (IOException ex) {
+            spare.rewind();
+            try {
+                channel.truncate(length);
+            } catch (IOException undo) {
+                // The next write starts over at the last whole record, or reopening cuts the torn bytes off
+                ex.addSuppressed(undo);
+            }
+            throw ex;
+        }
+        length = end;
+        spare.clear();
+        unwritten = false;
+    }
+
+    /**
+     * One group commit of the background thread; the first failure is kept for the next caller.
+     */
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException ex) {
+            failure.compareAndSet(null, ex);
+        }
+    }
+
+    /**
+     * Throws the kept failure of the background commit, once.
+     *
+     * @throws IOException The failure, if there was one.
+     */
+    private void throwFailure() throws IOException {
+        IOException ex = failure.getAndSet(null);
+        if (ex != null) {
+            throw ex;
+        }
+    }
+
+    /**
+     * @return An empty record buffer.
+     */
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(BUFFERED_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,183 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The board of one player, kept in a single 64-bit occupancy mask.
+ * <p>
+ * Boards up to {@link SolutionIndex#MAX_INDEXED_SIZE} fit into one {@code long} (bit
+ * {@code row * size + col} per queen), so a session costs a few dozen bytes instead of a
+ * {@link ChessboardModel}. Every operation reads or swaps the whole mask atomically: placements
+ * retry a compare-and-set, so concurrent requests of the same player never lose a queen and
+ * never place two queens on one square, and no locks are taken. With an {@link EventJournal},
+ * every accepted placement and reset is recorded after it took effect; placements commute, but a
+ * reset racing a placement of the same player may be recorded in either order.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public final class GameSession {
+    
+    /** Session id. */
+    private final long id;
+    
+    /** Board dimension. */
+    private final int size;
+    
+    /** The queens, bit {@code row * size + col} per queen. */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong occupancy = new AtomicLong();
+    
+    /** Receives the moves, or null. */
+    @Getter(AccessLevel.NONE)
+    private final EventJournal journal;
+    
+    /** Clock reading of the last access, for idle eviction. */
+    private volatile long lastAccess;
+    
+    /**
+     * Constructs an empty session.
+     *
+     * @param id The session id.
+     * @param size The board dimension (1 to {@link SolutionIndex#MAX_INDEXED_SIZE}).
+     * @param now The current clock reading.
+     * @param journal Receives the moves, or null.
+     * @throws IllegalArgumentException If the board does not fit into 64 bits.
+     */
+    GameSession(long id, int size, long now, EventJournal journal) {
+        if (size < 1 || size > SolutionIndex.MAX_INDEXED_SIZE) {
+            throw new IllegalArgumentException("Sessions support sizes 1 to " + SolutionIndex.MAX_INDEXED_SIZE + ": " + size);
+        }
+        this.id = id;
+        this.size = size;
+        this.lastAccess = now;
+        this.journal = journal;
+    }
+    
+    /**
+     * Places a queen unless the square is off the board or taken, like {@link ChessboardModel#checkPlacement(int, int)}
+     * followed by {@link ChessboardModel#placeQueen(int, int)}, but as one atomic step.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return OK or ATTACKED if the queen was placed, OUT_OF_RANGE or OCCUPIED if not.
+     * @throws UncheckedIOException If the move could not be journaled.
+     */
+    public PlacementResult place(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return PlacementResult.OUT_OF_RANGE;
+        }
+        long bit = 1L << (row * size + col);
+        while (true) {
+            long old = occupancy.get();
+            if ((old & bit) != 0) return PlacementResult.OCCUPIED;
+            if (occupancy.compareAndSet(old, old | bit)) {
+                log(EventJournal.PLACE, row * size + col);
+                return isAttacked(old, row, col) ? PlacementResult.ATTACKED : PlacementResult.OK;
+            }
+        }
+    }
+    
+    /**
+     * Removes every queen.
+     *
+     * @throws UncheckedIOException If the reset could not be journaled.
+     */
+    public void reset() {
+        occupancy.set(0L);
+        log(EventJournal.CLEAR, 0);
+    }
+    
+    /**
+     * Checks the board like {@link ChessboardModel#isSolutionValid()}: a full board must be one of the
+     * indexed solutions, a partial board must not contain two queens attacking each other.
+     *
+     * @return true if no queen attacks another (and, on a full board, if it is a solution).
+     */
+    public boolean isSolutionValid() {
+        long mask = occupancy.get();
+        if (Long.bitCount(mask) == size) {
+            return SolutionIndex.forSize(size).contains(mask);
+        }
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int sq = Long.numberOfTrailingZeros(rest);
+            if (isAttacked(rest & (rest - 1), sq / size, sq % size)) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * @return The number of queens on the board.
+     */
+    public int getQueenCount() {
+        return Long.bitCount(occupancy.get());
+    }
+    
+    /**
+     * @return A consistent snapshot of the queens, bit {@code row * size + col} per queen.
+     */
+    public long getOccupancyMask() {
+        return occupancy.get();
+    }
+    
+    /**
+     * Copies the board into a model, e.g. for the completion analysis or the board view.
+     *
+     * @return A new model holding the session's queens.
+     */
+    public ChessboardModel toModel() {
+        ChessboardModel model = new ChessboardModel(size);
+        for (long rest = occupancy.get(); rest != 0; rest &= rest - 1) {
+            int sq = Long.numberOfTrailingZeros(rest);
+            model.placeQueen(sq / size, sq % size);
+        }
+        return model;
+    }
+    
+    /**
+     * Records an access.
+     *
+     * @param now The current clock reading.
+     */
+    void touch(long now) {
+        lastAccess = now;
+    }
+    
+    /**
+     * Appends a move to the journal, if there is one.
+     *
+     * @param type The event type.
+     * @param square The square.
+     */
+    private void log(byte type, int square) {
+        if (journal == null) return;
+        try {
+            journal.append(id, type, size, square);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    /**
+     * Checks whether a square is attacked by any of a set of queens.
+     *
+     * @param mask The queens.
+     * @param row The row of the square.
+     * @param col The column of the square.
+     * @return true if a queen shares the row, column or a diagonal of the square.
+     */
+    private boolean isAttacked(long mask, int row, int col) {
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int sq = Long.numberOfTrailingZeros(rest);
+            int r = sq / size, c = sq % size;
+            if (r == row || c == col || r - c == row - col || r + c == row + col) return true;
+        }
+        return false;
+    }
+}
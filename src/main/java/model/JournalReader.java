@@ -0,0 +1,170 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Replays an {@link EventJournal} file through memory-mapped, read-only views.
+ * <p>
+ * The records are read in place with absolute {@code getLong}/{@code getInt} calls, so a scan
+ * creates no objects per event and runs at memory speed once the file is cached. Files larger
+ * than one mapping are mapped in windows of whole records. Records appended after the reader was
+ * opened are not seen; a partial record at the end of the file (a crash during a write) is ignored.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public final class JournalReader {
+
+    /** Largest mapped window, a whole number of records below 1 GiB. */
+    private static final long WINDOW_BYTES = (1L << 30) / EventJournal.RECORD_SIZE * EventJournal.RECORD_SIZE;
+
+    /**
+     * Receives the records of a scan.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Called for every record, in file order.
+         *
+         * @param sessionId The session of the board.
+         * @param timeMillis Wall-clock time of the change.
+         * @param type {@link EventJournal#PLACE}, {@link EventJournal#REMOVE} or {@link EventJournal#CLEAR}.
+         * @param size The board dimension.
+         * @param square The square {@code row * size + col}.
+         */
+        void event(long sessionId, long timeMillis, byte type, int size, int square);
+    }
+
+    /**
+     * Aggregate statistics of a journal.
+     *
+     * @param events Number of records.
+     * @param places Number of placed queens.
+     * @param removes Number of removed queens.
+     * @param clears Number of cleared boards.
+     * @param sessions Number of distinct sessions.
+     * @param firstMillis Time of the first record, or 0 if there is none.
+     * @param lastMillis Time of the last record, or 0 if there is none.
+     */
+    public record JournalStats(long events, long places, long removes, long clears, int sessions, long firstMillis, long lastMillis) {
+    }
+
+    /** The journal file. */
+    private final Path file;
+
+    /** Number of complete records in the file. */
+    private final long recordCount;
+
+    /**
+     * Opens a journal for reading.
+     *
+     * @param file The journal file.
+     * @throws IOException If the file cannot be read or is not a journal.
+     */
+    public JournalReader(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            checkHeader(channel);
+            this.recordCount = (channel.size() - EventJournal.HEADER_SIZE) / EventJournal.RECORD_SIZE;
+        }
+    }
+
+    /**
+     * Calls the visitor for every record.
+     *
+     * @param visitor The receiver of the records.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public void forEach(Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = EventJournal.HEADER_SIZE + recordCount * EventJournal.RECORD_SIZE;
+            for (long start = EventJournal.HEADER_SIZE; start < end; start += WINDOW_BYTES) {
+                int length = (int) Math.min(WINDOW_BYTES, end - start);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                window.order(ByteOrder.LITTLE_ENDIAN);
+                for (int at = 0; at < length; at += EventJournal.RECORD_SIZE) {
+                    visitor.event(window.getLong(at), window.getLong(at + 8), window.get(at + 22),
+                            window.getShort(at + 20) & 0xFFFF, window.getInt(at + 16));
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the board of one session as it was after its last recorded change.
+     *
+     * @param sessionId The session id.
+     * @return The board, or null if the journal holds no record of the session.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public ChessboardModel replay(long sessionId) throws IOException {
+        ChessboardModel[] board = new ChessboardModel[1];
+        forEach((id, time, type, size, square) -> {
+            if (id != sessionId) return;
+            if (board[0] == null || board[0].getSize() != size) board[0] = new ChessboardModel(size);
+            switch (type) {
+                case EventJournal.PLACE -> board[0].placeQueen(square / size, square % size);
+                case EventJournal.REMOVE -> board[0].removeQueen(square / size, square % size);
+                case EventJournal.CLEAR -> board[0].clearBoard();
+                default -> throw new IllegalStateException("Unknown event type " + type + " in " + file);
+            }
+        });
+        return board[0];
+    }
+
+    /**
+     * Counts the events of the journal by type and session.
+     *
+     * @return The statistics.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public JournalStats aggregate() throws IOException {
+        long[] counts = new long[4];
+        long[] times = new long[2];
+        Set<Long> sessions = new HashSet<>();
+        long[] lastSession = {-1};
+        forEach((id, time, type, size, square) -> {
+            counts[type & 3]++;
+            if (times[0] == 0) times[0] = time;
+            times[1] = time;
+            // Moves of one session usually follow each other, so most records skip the set
+            if (id != lastSession[0]) {
+                sessions.add(id);
+                lastSession[0] = id;
+            }
+        });
+        return new JournalStats(recordCount, counts[EventJournal.PLACE], counts[EventJournal.REMOVE],
+                counts[EventJournal.CLEAR], sessions.size(), times[0], times[1]);
+    }
+
+    /**
+     * Reads and checks the header of a journal file.
+     *
+     * @param channel The open file.
+     * @throws IOException If the header is missing, of another format or of another version.
+     */
+    static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(EventJournal.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Positional reads leave the channel position alone
+        }
+        if (header.hasRemaining() || header.getInt(0) != EventJournal.MAGIC) {
+            throw new IOException("Not an event journal");
+        }
+        if (header.getInt(4) != EventJournal.VERSION || header.getInt(8) != EventJournal.RECORD_SIZE) {
+            throw new IOException("Unsupported journal version " + header.getInt(4));
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package model;
+
+import java.util.SplittableRandom;
+import lombok.Getter;
+
+/**
+ * Local search solver that finds a single solution for very large boards (N = 1,000,000 and more).
+ * <p>
+ * The board is a permutation {@code queens[row] = col}, so rows and columns never conflict and
+ * only the diagonals have to be repaired. Queens are first placed greedily row by row, swapping in
+ * a random column that is free on both diagonals; the few rows left over are then repaired by
+ * min-conflicts swaps that are kept only when they lower the number of attacking pairs. Diagonal
+ * occupancy is kept in two {@code int[]} counters, so every move is O(1) and memory is O(N).
+ * Runs are reproducible for a given seed.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public class MinConflictsSolver {
+    
+    /** Number of random swap attempts per greedy row, relative to N (as in the QS4 algorithm). */
+    private static final double GREEDY_TRIES_PER_ROW = 3.08;
+    
+    /** Passes over the board during repair before the search restarts. */
+    private static final int MAX_REPAIR_PASSES = 64;
+    
+    /** Seed of the random number generator. */
+    private final long seed;
+    
+    /** Number of restarts the last {@link #solve(int)} needed. */
+    private int restarts;
+    
+    /**
+     * Constructs a solver with a fixed seed.
+     *
+     * @param seed The seed; equal seeds give equal solutions.
+     */
+    public MinConflictsSolver(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Finds one solution of the N Queens Puzzle.
+     *
+     * @param n The board dimension (1 or at least 4).
+     * @return The column of the queen in each row.
+     * @throws IllegalArgumentException If the board has no solution (n = 2, 3) or n is not positive.
+     */
+    public int[] solve(int n) {
+        if (n < 1 || n == 2 || n == 3) {
+            throw new IllegalArgumentException("No solution exists for N=" + n);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        restarts = 0;
+        while (true) {
+            Board board = new Board(n);
+            int greedy = board.placeGreedily(random);
+            if (board.repair(random, greedy)) {
+                return board.queens;
+            }
+            restarts++;
+        }
+    }
+    
+    /**
+     * Checks a placement in O(N): one queen per row by construction, distinct columns and diagonals.
+     *
+     * @param queens The column of the queen in each row.
+     * @return true if no two queens attack each other.
+     */
+    public static boolean isSolution(int[] queens) {
+        int n = queens.length;
+        boolean[] cols = new boolean[n];
+        boolean[] diag = new boolean[2 * n - 1];
+        boolean[] antiDiag = new boolean[2 * n - 1];
+        for (int r = 0; r < n; r++) {
+            int c = queens[r];
+            if (c < 0 || c >= n || cols[c] || diag[r - c + n - 1] || antiDiag[r + c]) {
+                return false;
+            }
+            cols[c] = true;
+            diag[r - c + n - 1] = true;
+            antiDiag[r + c] = true;
+        }
+        return true;
+    }
+    
+    /**
+     * Permutation board with diagonal counters and the number of attacking pairs.
+     */
+    private static final class Board {
+        
+        /** Board dimension. */
+        private final int n;
+        
+        /** The column of the queen in each row (a permutation). */
+        private final int[] queens;
+        
+        /** Queens per diagonal, indexed by {@code row - col + n - 1}. */
+        private final int[] diag;
+        
+        /** Queens per anti-diagonal, indexed by {@code row + col}. */
+        private final int[] antiDiag;
+        
+        /** Number of attacking pairs of queens that are on the board. */
+        private long pairs;
+        
+        /**
+         * @param n Board dimension.
+         */
+        Board(int n) {
+            this.n = n;
+            this.queens = new int[n];
+            this.diag = new int[2 * n - 1];
+            this.antiDiag = new int[2 * n - 1];
+            for (int i = 0; i < n; i++) {
+                queens[i] = i;
+            }
+        }
+        
+        /**
+         * Places queens row by row on random columns that are free on both diagonals.
+         * Stops when the try budget is used up; the remaining rows keep their columns.
+         *
+         * @param random The random number generator.
+         * @return The number of rows placed without conflicts.
+         */
+        int placeGreedily(SplittableRandom random) {
+            long tries = 0;
+            long budget = (long) (GREEDY_TRIES_PER_ROW * n);
+            int row = 0;
+            while (row < n && tries < budget) {
+                int other = row + random.nextInt(n - row);
+                swap(row, other);
+                tries++;
+                if (diag[row - queens[row] + n - 1] == 0 && antiDiag[row + queens[row]] == 0) {
+                    add(row);
+                    row++;
+                } else {
+                    swap(row, other);
+                }
+            }
+            for (int r = row; r < n; r++) {
+                add(r);
+            }
+            return row;
+        }
+        
+        /**
+         * Removes the remaining conflicts by random swaps that lower the number of attacking pairs.
+         *
+         * @param random The random number generator.
+         * @param greedy The number of rows placed without conflicts; repair starts behind them.
+         * @return true if the board was solved, false if the search should restart.
+         */
+        boolean repair(SplittableRandom random, int greedy) {
+            for (int pass = 0; pass < MAX_REPAIR_PASSES && pairs > 0; pass++) {
+                int start = pass == 0 ? greedy : 0;
+                for (int row = start; row < n && pairs > 0; row++) {
+                    for (int attempt = 0; attempt < n && attacks(row) > 0; attempt++) {
+                        int other = random.nextInt(n);
+                        if (other == row) continue;
+                        long before = pairs;
+                        move(row, other);
+                        if (pairs >= before) {
+                            move(row, other);
+                        }
+                    }
+                }
+            }
+            return pairs == 0;
+        }
+        
+        /**
+         * Swaps the columns of two rows, keeping the counters up to date.
+         *
+         * @param a The first row.
+         * @param b The second row.
+         */
+        private void move(int a, int b) {
+            remove(a);
+            remove(b);
+            swap(a, b);
+            add(a);
+            add(b);
+        }
+        
+        /**
+         * Number of queens attacking the queen of a row along the diagonals.
+         *
+         * @param row The row.
+         * @return The number of other queens sharing one of its diagonals.
+         */
+        private int attacks(int row) {
+            return diag[row - queens[row] + n - 1] + antiDiag[row + queens[row]] - 2;
+        }
+        
+        /**
+         * Counts the queen of a row on its diagonals.
+         *
+         * @param row The row.
+         */
+        private void add(int row) {
+            pairs += diag[row - queens[row] + n - 1]++;
+            pairs += antiDiag[row + queens[row]]++;
+        }
+        
+        /**
+         * Removes the queen of a row from its diagonals.
+         *
+         * @param row The row.
+         */
+        private void remove(int row) {
+            pairs -= --diag[row - queens[row] + n - 1];
+            pairs -= --antiDiag[row + queens[row]];
+        }
+        
+        /**
+         * Swaps two entries of the permutation without touching the counters.
+         *
+         * @param a The first row.
+         * @param b The second row.
+         */
+        private void swap(int a, int b) {
+            int tmp = queens[a];
+            queens[a] = queens[b];
+            queens[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package model;
+
+import java.util.function.Consumer;
+
+/**
+ * Backtracking solver for the N Queens Puzzle.
+ * <p>
+ * Uses the classic bitmask recursion: one row per level, with the occupied columns and
+ * both diagonal directions kept as {@code int} masks. The free squares of a row are
+ * {@code ~(cols | diag1 | diag2)}, and moving to the next row only shifts the diagonal
+ * masks, so the inner loop does not allocate.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+public final class NQueensSolver {
+    
+    /** Largest board dimension the {@code int} masks can represent. */
+    public static final int MAX_N = 31;
+    
+    /**
+     * Version stamp of the counting algorithms. Results persisted by {@link SolverCache} under
+     * another stamp are discarded, so it has to be bumped whenever a change could alter a result.
+     */
+    public static final int VERSION = 1;
+    
+    /** Utility class, no instances. */
+    private NQueensSolver() {
+    }
+    
+    /**
+     * Counts all solutions of the N Queens Puzzle.
+     * Only the left half of the first row is searched: every solution starting there has
+     * a mirror image starting in the right half, and the middle column of an odd board is
+     * counted once on its own.
+     *
+     * @param n The board dimension (1 to {@link #MAX_N}).
+     * @return The number of distinct solutions (92 for n = 8).
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    public static long count(int n) {
+        int full = fullMask(n);
+        long total = 0;
+        for (int col = 0; col < n / 2; col++) {
+            total += countFrom(full, 1 << col, (2 << col) & full, (1 << col) >>> 1);
+        }
+        total *= 2;
+        if (n % 2 == 1) {
+            int mid = 1 << (n / 2);
+            total += countFrom(full, mid, (mid << 1) & full, mid >>> 1);
+        }
+        return total;
+    }
+    
+    /**
+     * Calls the action for every solution, in lexicographic order of the columns.
+     * The array passed to the action holds the column of the queen in each row and is
+     * reused between calls, so it has to be copied if it is kept.
+     *
+     * @param n The board dimension (1 to {@link #MAX_N}).
+     * @param action The consumer receiving each solution.
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    public static void forEachSolution(int n, Consumer<int[]> action) {
+        enumerate(fullMask(n), 0, 0, 0, 0, new int[n], action);
+    }
+    
+    /**
+     * Returns the mask with the lowest n bits set.
+     *
+     * @param n The board dimension.
+     * @return The mask of all columns.
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    static int fullMask(int n) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_N + ": " + n);
+        }
+        return (1 << n) - 1;
+    }
+    
+    /**
+     * Counts the completions of a partial placement of the first rows.
+     *
+     * @param full The mask of all columns.
+     * @param cols Columns already taken.
+     * @param diag1 Squares of the current row attacked along the down-right diagonals.
+     * @param diag2 Squares of the current row attacked along the down-left diagonals.
+     * @return The number of ways to fill the remaining rows.
+     */
+    static long countFrom(int full, int cols, int diag1, int diag2) {
+        if (cols == full) return 1;
+        
+        long total = 0;
+        int avail = full & ~(cols | diag1 | diag2);
+        while (avail != 0) {
+            int bit = avail & -avail;
+            avail ^= bit;
+            total += countFrom(full, cols | bit, ((diag1 | bit) << 1) & full, (diag2 | bit) >>> 1);
+        }
+        return total;
+    }
+    
+    /**
+     * Recursively fills rows from {@code row} on and reports every completed board.
+     *
+     * @param full The mask of all columns.
+     * @param row The row being filled.
+     * @param cols Columns already taken.
+     * @param diag1 Squares of the current row attacked along the down-right diagonals.
+     * @param diag2 Squares of the current row attacked along the down-left diagonals.
+     * @param queens The column of the queen in each row filled so far.
+     * @param action The consumer receiving each solution.
+     */
+    private static void enumerate(int full, int row, int cols, int diag1, int diag2, int[] queens, Consumer<int[]> action) {
+        if (cols == full) {
+            action.accept(queens);
+            return;
+        }
+        
+        int avail = full & ~(cols | diag1 | diag2);
+        while (avail != 0) {
+            int bit = avail & -avail;
+            avail ^= bit;
+            queens[row] = Integer.numberOfTrailingZeros(bit);
+            enumerate(full, row + 1, cols | bit, ((diag1 | bit) << 1) & full, (diag2 | bit) >>> 1, queens, action);
+        }
+    }
+}
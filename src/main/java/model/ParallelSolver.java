@@ -0,0 +1,301 @@
+package model;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+
+/**
+ * Parallel solution counter for the N Queens Puzzle built on a {@link ForkJoinPool}.
+ * <p>
+ * The search tree is cut after the first {@code splitDepth} rows. Every valid prefix of that
+ * depth becomes a work unit that is counted with the sequential bitmask recursion of
+ * {@link NQueensSolver}. The units are spread over the pool by recursively halving the unit
+ * range, so idle workers steal the remaining halves from busy ones. A {@link CountCheckpoint}
+ * records the finished units, so a long count can be resumed after a restart.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public class ParallelSolver {
+    
+    /** Default number of rows placed before the search is split into work units. */
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+    
+    /** Number of worker threads of the pool. */
+    private final int parallelism;
+    
+    /** Number of rows fixed in every work unit. */
+    private final int splitDepth;
+    
+    /**
+     * Result of a parallel count together with the timing of its work units.
+     *
+     * @param solutions The number of solutions found.
+     * @param parallelism The number of worker threads used.
+     * @param elapsedNanos Wall-clock time of the whole count.
+     * @param taskNanos Time spent in each work unit, in unit order.
+     */
+    public record ParallelCount(long solutions, int parallelism, long elapsedNanos, long[] taskNanos) {
+        
+        /**
+         * @return The number of work units the search was split into.
+         */
+        public int tasks() {
+            return taskNanos.length;
+        }
+        
+        /**
+         * @return Time of the fastest work unit.
+         */
+        public long minTaskNanos() {
+            return Arrays.stream(taskNanos).min().orElse(0);
+        }
+        
+        /**
+         * @return Time of the slowest work unit.
+         */
+        public long maxTaskNanos() {
+            return Arrays.stream(taskNanos).max().orElse(0);
+        }
+        
+        /**
+         * @return Sum of the work unit times, i.e. the CPU time spent searching.
+         */
+        public long totalTaskNanos() {
+            return Arrays.stream(taskNanos).sum();
+        }
+        
+        /**
+         * @return The achieved speedup: total unit time divided by wall-clock time.
+         */
+        public double speedup() {
+            return elapsedNanos == 0 ? 0 : (double) totalTaskNanos() / elapsedNanos;
+        }
+    }
+    
+    /**
+     * Receives the progress of a count. Its methods are called from the worker threads,
+     * so implementations must be thread-safe.
+     */
+    public interface ProgressListener {
+        
+        /**
+         * Called after a work unit has been counted.
+         *
+         * @param unit The index of the unit.
+         * @param solutions The weighted number of solutions found in the unit.
+         * @param completed The number of units finished so far.
+         * @param total The total number of units.
+         */
+        void unitCompleted(int unit, long solutions, int completed, int total);
+        
+        /**
+         * Checked before every unit; once true, the remaining units are skipped.
+         *
+         * @return true to cancel the count.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+    
+    /**
+     * Constructs a solver using every available core and the default split depth.
+     */
+    public ParallelSolver() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_SPLIT_DEPTH);
+    }
+    
+    /**
+     * Constructs a solver with the given pool size and split depth.
+     *
+     * @param parallelism The number of worker threads (at least 1).
+     * @param splitDepth The number of rows fixed in every work unit (at least 1).
+     * @throws IllegalArgumentException If a parameter is out of range.
+     */
+    public ParallelSolver(int parallelism, int splitDepth) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (splitDepth < 1) {
+            throw new IllegalArgumentException("Split depth must be at least 1: " + splitDepth);
+        }
+        this.parallelism = parallelism;
+        this.splitDepth = splitDepth;
+    }
+    
+    /**
+     * Counts all solutions of the N Queens Puzzle on the fork/join pool.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @return The number of solutions and per-unit timing statistics.
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    public ParallelCount count(int n) {
+        return count(n, null);
+    }
+    
+    /**
+     * Counts all solutions of the N Queens Puzzle on the fork/join pool, reporting every finished unit.
+     * A unit that is already running is finished before a cancellation takes effect.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @param listener Receives the progress and decides about cancellation, or null.
+     * @return The number of solutions and per-unit timing statistics.
+     * @throws IllegalArgumentException If n is out of range.
+     * @throws CancellationException If the listener cancelled the count.
+     */
+    public ParallelCount count(int n, ProgressListener listener) {
+        return count(WorkUnits.split(n, splitDepth), listener, null);
+    }
+    
+    /**
+     * Counts all solutions, resuming from a checkpoint and recording every finished unit in it.
+     * Units restored from the checkpoint are reported to the listener without being counted again
+     * and take no time. The checkpoint is saved once more when the count ends or is cancelled, so a
+     * cancelled count can be resumed later; a finished one is answered from the file.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @param listener Receives the progress and decides about cancellation, or null.
+     * @param checkpoint Stores the finished units; it must have been written for the same n and split depth.
+     * @return The number of solutions and per-unit timing statistics.
+     * @throws IllegalArgumentException If n is out of range.
+     * @throws CancellationException If the listener cancelled the count.
+     * @throws IOException If the checkpoint cannot be read or written, or belongs to another count;
+     *         a failed save after a cancelled or failed count is attached to that exception instead.
+     */
+    public ParallelCount count(int n, ProgressListener listener, CountCheckpoint checkpoint) throws IOException {
+        WorkUnits units = WorkUnits.split(n, splitDepth);
+        checkpoint.begin(units);
+        ParallelCount result;
+        try {
+            result = count(units, listener, checkpoint);
+        } catch (RuntimeException | Error ex) {
+            // The cancellation or failure of the count is what the caller has to see
+            try {
+                checkpoint.save();
+            } catch (IOException saveFailure) {
+                ex.addSuppressed(saveFailure);
+            }
+            throw ex;
+        }
+        checkpoint.save();
+        return result;
+    }
+    
+    /**
+     * Counts the given units on a new pool.
+     *
+     * @param units The work units.
+     * @param listener Receives the progress, or null.
+     * @param checkpoint Restores and records finished units, or null.
+     * @return The number of solutions and per-unit timing statistics.
+     */
+    private ParallelCount count(WorkUnits units, ProgressListener listener, CountCheckpoint checkpoint) {
+        long start = System.nanoTime();
+        long[] taskNanos = new long[units.getSize()];
+        Progress progress = new Progress(listener, checkpoint, units.getSize());
+        
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long solutions = pool.invoke(new CountTask(units, taskNanos, progress, 0, units.getSize()));
+            if (listener != null && listener.isCancelled()) {
+                throw new CancellationException("Count cancelled");
+            }
+            return new ParallelCount(solutions, parallelism, System.nanoTime() - start, taskNanos);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Shared progress of one count: the listener, the checkpoint and the number of finished units.
+     *
+     * @param listener The listener, or null.
+     * @param checkpoint The checkpoint, or null.
+     * @param total The total number of units.
+     * @param completed The number of units finished so far.
+     */
+    private record Progress(ProgressListener listener, CountCheckpoint checkpoint, int total, AtomicInteger completed) {
+        
+        /**
+         * @param listener The listener, or null.
+         * @param checkpoint The checkpoint, or null.
+         * @param total The total number of units.
+         */
+        Progress(ProgressListener listener, CountCheckpoint checkpoint, int total) {
+            this(listener, checkpoint, total, new AtomicInteger());
+        }
+    }
+    
+    /**
+     * Fork/join task counting a contiguous range of work units.
+     * Ranges are halved until a single unit is left, which is then counted sequentially.
+     */
+    private static final class CountTask extends RecursiveTask<Long> {
+        
+        /** The work units of the whole count. */
+        private final WorkUnits units;
+        
+        /** Receives the time spent in each unit. */
+        private final long[] taskNanos;
+        
+        /** Progress of the whole count. */
+        private final Progress progress;
+        
+        /** First unit of the range (inclusive). */
+        private final int from;
+        
+        /** End of the range (exclusive). */
+        private final int to;
+        
+        /**
+         * @param units The work units of the whole count.
+         * @param taskNanos Receives the time spent in each unit.
+         * @param progress Progress of the whole count.
+         * @param from First unit of the range (inclusive).
+         * @param to End of the range (exclusive).
+         */
+        CountTask(WorkUnits units, long[] taskNanos, Progress progress, int from, int to) {
+            this.units = units;
+            this.taskNanos = taskNanos;
+            this.progress = progress;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected Long compute() {
+            if (to - from == 1) {
+                ProgressListener listener = progress.listener();
+                CountCheckpoint checkpoint = progress.checkpoint();
+                long count = checkpoint == null ? -1 : checkpoint.get(from);
+                if (count < 0) {
+                    if (listener != null && listener.isCancelled()) return 0L;
+                    
+                    long start = System.nanoTime();
+                    count = units.count(from);
+                    taskNanos[from] = System.nanoTime() - start;
+                    if (checkpoint != null) checkpoint.completed(from, count);
+                }
+                if (listener != null) {
+                    listener.unitCompleted(from, count, progress.completed().incrementAndGet(), progress.total());
+                }
+                return count;
+            }
+            if (to == from) return 0L;
+            
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(units, taskNanos, progress, from, mid);
+            left.fork();
+            long right = new CountTask(units, taskNanos, progress, mid, to).compute();
+            return right + left.join();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum representing the outcome of checking a queen placement without throwing.
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+@RequiredArgsConstructor
+public enum PlacementResult {
+    
+    /** The position is well-formed, on the board, free and not attacked. */
+    OK("Position accepted.", false),
+    
+    /** The input is null, too short or too long. */
+    BAD_LENGTH("User input is too short or too long.", true),
+    
+    /** The input is malformed or addresses a square outside the board. */
+    OUT_OF_RANGE("Position out of range.", true),
+    
+    /** Another queen already stands on the square. */
+    OCCUPIED("Position occupied by other queen", true),
+    
+    /** The square is free but attacked by another queen; placing there is allowed but breaks the solution. */
+    ATTACKED("Position attacked by other queen", false);
+    
+    /** The message shown to the user for this outcome. */
+    private final String message;
+    
+    /** Whether the placement must be refused (as opposed to OK or merely attacked). */
+    private final boolean rejected;
+}
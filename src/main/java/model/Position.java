@@ -7,11 +7,24 @@ package model;
 /**
  * A record representing a 2D position on the chessboard.
  *
- * @param row The row index (0-7).
- * @param col The column index (0-7).
+ * @param row The row index (0 to N-1, 0-7 on the classic board).
+ * @param col The column index (0 to N-1, 0-7 on the classic board).
  * @author Adam
- * @version 3.0
+ * @version 5.0
  */
 public record Position(int row, int col) {
     
+    /**
+     * Formats the position in board notation: column letters followed by the row number.
+     * Columns past Z continue as AA, AB, ... (e.g. row 11, column 27 is "AB12").
+     *
+     * @return The position string accepted by {@link ChessboardModel#parse(String)}.
+     */
+    public String toNotation() {
+        StringBuilder letters = new StringBuilder();
+        for (int c = col + 1; c > 0; c = (c - 1) / 26) {
+            letters.append((char) ('A' + (c - 1) % 26));
+        }
+        return letters.reverse().append(row + 1).toString();
+    }
 }
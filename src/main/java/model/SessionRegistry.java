@@ -0,0 +1,171 @@
+package model;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Thread-safe registry of the {@link GameSession}s of many concurrent players.
+ * <p>
+ * Sessions live in a {@link ConcurrentHashMap}, whose bins are locked independently, so players
+ * never contend with each other: lookups are lock-free and every session updates its own board
+ * with compare-and-set. Ids are random, so one player cannot guess another's session. Sessions
+ * not accessed for the idle timeout are evicted by a sweep that runs piggybacked on
+ * {@link #create(int)} and {@link #get(long)} at most four times per timeout; the thread that
+ * wins a compare-and-set on the next sweep time does it, the others carry on. The moves of all
+ * sessions can be recorded in one {@link EventJournal}.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public class SessionRegistry {
+    
+    /** Idle time after which a session is evicted by default. */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    
+    /** Sessions by id. */
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    
+    /** Idle time after which a session is evicted, in clock units (nanoseconds). */
+    private final long idleNanos;
+    
+    /** The clock, {@link System#nanoTime()} outside of tests. */
+    @Getter(AccessLevel.NONE)
+    private final LongSupplier clock;
+    
+    /** Receives the moves of every session, or null. */
+    @Getter(AccessLevel.NONE)
+    private final EventJournal journal;
+    
+    /** Clock reading at which the next sweep is due. */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong nextSweep;
+    
+    /** Number of sessions evicted so far. */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong evicted = new AtomicLong();
+    
+    /**
+     * Constructs a registry with the default idle timeout.
+     */
+    public SessionRegistry() {
+        this(DEFAULT_IDLE_TIMEOUT, System::nanoTime, null);
+    }
+    
+    /**
+     * Constructs a registry.
+     *
+     * @param idleTimeout Idle time after which a session is evicted.
+     * @param clock The clock in nanoseconds.
+     * @param journal Receives the moves of every session, or null.
+     * @throws IllegalArgumentException If the timeout is not positive.
+     */
+    public SessionRegistry(Duration idleTimeout, LongSupplier clock, EventJournal journal) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be positive: " + idleTimeout);
+        }
+        this.idleNanos = idleTimeout.toNanos();
+        this.clock = clock;
+        this.journal = journal;
+        this.nextSweep = new AtomicLong(clock.getAsLong() + sweepInterval());
+    }
+    
+    /**
+     * Opens a session with an empty board.
+     *
+     * @param size The board dimension (1 to {@link SolutionIndex#MAX_INDEXED_SIZE}).
+     * @return The new session.
+     * @throws IllegalArgumentException If the size is not supported.
+     */
+    public GameSession create(int size) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        while (true) {
+            long id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+            GameSession session = new GameSession(id, size, now, journal);
+            if (sessions.putIfAbsent(id, session) == null) return session;
+        }
+    }
+    
+    /**
+     * Looks up a session and marks it as used.
+     *
+     * @param id The session id.
+     * @return The session, or null if it does not exist or was evicted.
+     */
+    public GameSession get(long id) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        GameSession session = sessions.get(id);
+        if (session != null) session.touch(now);
+        return session;
+    }
+    
+    /**
+     * Closes a session.
+     *
+     * @param id The session id.
+     * @return true if the session existed.
+     */
+    public boolean remove(long id) {
+        return sessions.remove(id) != null;
+    }
+    
+    /**
+     * Removes every session idle for longer than the timeout.
+     * A session used while the sweep runs may still be evicted; its player then opens a new one.
+     *
+     * @return The number of evicted sessions.
+     */
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int[] removed = new int[1];
+        sessions.values().removeIf(s -> {
+            boolean idle = now - s.getLastAccess() > idleNanos;
+            if (idle) removed[0]++;
+            return idle;
+        });
+        evicted.addAndGet(removed[0]);
+        return removed[0];
+    }
+    
+    /**
+     * @return The number of open sessions.
+     */
+    public int size() {
+        return sessions.size();
+    }
+    
+    /**
+     * @return The number of sessions evicted so far.
+     */
+    public long getEvictedCount() {
+        return evicted.get();
+    }
+    
+    /**
+     * Runs a sweep if one is due and no other thread has started it.
+     *
+     * @param now The current clock reading.
+     */
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due >= 0 && nextSweep.compareAndSet(due, now + sweepInterval())) {
+            evictIdle();
+        }
+    }
+    
+    /**
+     * @return The time between two sweeps, a quarter of the idle timeout.
+     */
+    private long sweepInterval() {
+        return Math.max(1, idleNanos / 4);
+    }
+}
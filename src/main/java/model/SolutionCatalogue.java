@@ -0,0 +1,355 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Read-only file holding every solution of one board size, packed to the bit, with O(1) access by index.
+ * <p>
+ * {@link #write(int, Path)} enumerates the solutions once in lexicographic order and stores each
+ * as N columns of {@code ceil(log2 N)} bits (85 bits per solution for N = 17). The file layout is:
+ * </p>
+ * <ul>
+ * <li>a {@link #HEADER_SIZE}-byte header: magic, version, N, bits per column, solution count and
+ * the offsets of the data and of the index;</li>
+ * <li>the bit-packed solutions, little-endian, solution i starting at bit {@code i * N * bits},
+ * padded with eight zero bytes;</li>
+ * <li>the sparse index: N + 1 {@code long}s, the index of the first solution with its first-row
+ * queen in each column, so the solutions of a first-row prefix form one range.</li>
+ * </ul>
+ * <p>
+ * {@link #open(Path)} maps the whole file; {@link #get(long, int[])} then reads one unaligned
+ * {@code long} per row straight from the page cache, and {@link #forEach(Consumer)} scans at disk
+ * speed. The solver is never needed after generation. Files are limited to N = {@link #MAX_SIZE}
+ * (about 1 GB), which fits into a single mapping.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public final class SolutionCatalogue {
+
+    /** Marks the start of a catalogue file ("NQSC"). */
+    public static final int MAGIC = 0x4353514E;
+
+    /** Format version; readers reject other versions. */
+    public static final int VERSION = 1;
+
+    /** Size of the file header in bytes. */
+    public static final int HEADER_SIZE = 48;
+
+    /** Largest board whose catalogue fits into one mapping (95,815,104 solutions for N = 17). */
+    public static final int MAX_SIZE = 17;
+
+    /** Board dimension. */
+    private final int size;
+
+    /** Number of solutions in the file. */
+    private final long count;
+
+    /** Bits per stored column. */
+    private final int bitsPerColumn;
+
+    /** The mapped file. */
+    @Getter(AccessLevel.NONE)
+    private final MappedByteBuffer buffer;
+
+    /** Offset of the first data byte. */
+    @Getter(AccessLevel.NONE)
+    private final int dataOffset;
+
+    /** Index of the first solution by first-row column, plus the count at the end. */
+    @Getter(AccessLevel.NONE)
+    private final long[] firstRowIndex;
+
+    /**
+     * @param size The board dimension.
+     * @param count The number of solutions.
+     * @param bitsPerColumn Bits per stored column.
+     * @param buffer The mapped file.
+     * @param dataOffset Offset of the first data byte.
+     * @param firstRowIndex Index of the first solution by first-row column.
+     */
+    private SolutionCatalogue(int size, long count, int bitsPerColumn, MappedByteBuffer buffer, int dataOffset, long[] firstRowIndex) {
+        this.size = size;
+        this.count = count;
+        this.bitsPerColumn = bitsPerColumn;
+        this.buffer = buffer;
+        this.dataOffset = dataOffset;
+        this.firstRowIndex = firstRowIndex;
+    }
+
+    /**
+     * Enumerates every solution of a board size and writes the catalogue file.
+     *
+     * @param n The board dimension (1 to {@link #MAX_SIZE}).
+     * @param file The file to create or overwrite.
+     * @return The number of stored solutions.
+     * @throws IllegalArgumentException If n is out of range.
+     * @throws IOException If the file cannot be written.
+     */
+    public static long write(int n, Path file) throws IOException {
+        if (n < 1 || n > MAX_SIZE) {
+            throw new IllegalArgumentException("Catalogue supports sizes 1 to " + MAX_SIZE + ": " + n);
+        }
+        int bits = bitsPerColumn(n);
+        long[] firstRow = new long[n + 1];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BitWriter out = new BitWriter(channel, HEADER_SIZE);
+            long[] written = new long[1];
+            NQueensSolver.forEachSolution(n, queens -> {
+                firstRow[queens[0] + 1]++;
+                for (int col : queens) {
+                    out.write(col, bits);
+                }
+                written[0]++;
+            });
+            out.finish();
+
+            // Turn the per-column counts into the index of each column's first solution
+            for (int c = 1; c <= n; c++) {
+                firstRow[c] += firstRow[c - 1];
+            }
+            long indexOffset = channel.position();
+            ByteBuffer index = ByteBuffer.allocate(8 * (n + 1)).order(ByteOrder.LITTLE_ENDIAN);
+            for (long first : firstRow) {
+                index.putLong(first);
+            }
+            writeFully(channel, index.flip(), indexOffset);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(bits)
+                    .putLong(written[0]).putLong(HEADER_SIZE).putLong(indexOffset).putLong(0);
+            writeFully(channel, header.flip(), 0);
+            return written[0];
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Opens a catalogue file for reading.
+     *
+     * @param file The file written by {@link #write(int, Path)}.
+     * @return The catalogue.
+     * @throws IOException If the file cannot be mapped or is not a catalogue.
+     */
+    public static SolutionCatalogue open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a solution catalogue: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a solution catalogue: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported catalogue version " + buffer.getInt(4));
+            }
+            int n = buffer.getInt(8);
+            int bits = buffer.getInt(12);
+            long count = buffer.getLong(16);
+            int dataOffset = (int) buffer.getLong(24);
+            int indexOffset = (int) buffer.getLong(32);
+            if (n < 1 || n > MAX_SIZE || bits != bitsPerColumn(n) || indexOffset + 8L * (n + 1) > channel.size()) {
+                throw new IOException("Corrupt solution catalogue: " + file);
+            }
+            long[] firstRow = new long[n + 1];
+            for (int c = 0; c <= n; c++) {
+                firstRow[c] = buffer.getLong(indexOffset + 8 * c);
+            }
+            return new SolutionCatalogue(n, count, bits, buffer, dataOffset, firstRow);
+        }
+    }
+
+    /**
+     * Reads the solution with the given index.
+     *
+     * @param index The lexicographic index (0 to {@link #getCount()} - 1).
+     * @return The column of the queen in each row.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public int[] get(long index) {
+        return get(index, new int[size]);
+    }
+
+    /**
+     * Reads the solution with the given index into an array, without allocating.
+     *
+     * @param index The lexicographic index (0 to {@link #getCount()} - 1).
+     * @param queens Receives the column of the queen in each row; at least N long.
+     * @return The array passed in.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public int[] get(long index, int[] queens) {
+        Objects.checkIndex(index, count);
+        long bit = index * size * bitsPerColumn;
+        int mask = (1 << bitsPerColumn) - 1;
+        for (int r = 0; r < size; r++, bit += bitsPerColumn) {
+            queens[r] = (int) (buffer.getLong(dataOffset + (int) (bit >>> 3)) >>> (bit & 7)) & mask;
+        }
+        return queens;
+    }
+
+    /**
+     * Reads a solution as the positions of its queens.
+     *
+     * @param index The lexicographic index.
+     * @return One {@link Position} per row.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public List<Position> getPositions(long index) {
+        return Solutions.toPositions(get(index));
+    }
+
+    /**
+     * Reads a solution onto a new board.
+     *
+     * @param index The lexicographic index.
+     * @return A model holding the queens of the solution.
+     * @throws IndexOutOfBoundsException If the index is out of range.
+     */
+    public ChessboardModel getModel(long index) {
+        return Solutions.toModel(get(index));
+    }
+
+    /**
+     * Returns the index of the first solution whose first-row queen stands in a column;
+     * the solutions with the queen in that column end where the next column's begin.
+     *
+     * @param col The column (0 to N; N returns the count).
+     * @return The index of the first such solution.
+     * @throws IndexOutOfBoundsException If the column is out of range.
+     */
+    public long firstIndexOfColumn(int col) {
+        return firstRowIndex[Objects.checkIndex(col, size + 1)];
+    }
+
+    /**
+     * Calls the action for every solution in order. The array is reused between calls.
+     *
+     * @param action The consumer receiving each solution.
+     */
+    public void forEach(Consumer<int[]> action) {
+        int[] queens = new int[size];
+        for (long i = 0; i < count; i++) {
+            action.accept(get(i, queens));
+        }
+    }
+
+    /**
+     * @param n The board dimension.
+     * @return The number of bits needed for a column index, at least one.
+     */
+    private static int bitsPerColumn(int n) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+    }
+
+    /**
+     * Writes a buffer at a file position.
+     *
+     * @param channel The file.
+     * @param data The bytes to write.
+     * @param position The file position.
+     * @throws IOException If writing fails.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    /**
+     * Packs values of a few bits each into little-endian longs and streams them to a file.
+     */
+    private static final class BitWriter {
+
+        /** The file. */
+        private final FileChannel channel;
+
+        /** Buffered longs. */
+        private final ByteBuffer out = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        /** File position of the next flushed byte. */
+        private long position;
+
+        /** Bits not yet stored in {@link #out}. */
+        private long pending;
+
+        /** Number of valid bits in {@link #pending}. */
+        private int pendingBits;
+
+        /**
+         * @param channel The file.
+         * @param position File position of the first byte.
+         */
+        BitWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        /**
+         * Appends a value.
+         *
+         * @param value The value, below {@code 1 << bits}.
+         * @param bits The number of bits to store.
+         */
+        void write(int value, int bits) {
+            pending |= (long) value << pendingBits;
+            pendingBits += bits;
+            if (pendingBits >= Long.SIZE) {
+                putLong(pending);
+                pendingBits -= Long.SIZE;
+                pending = pendingBits == 0 ? 0 : (long) value >>> (bits - pendingBits);
+            }
+        }
+
+        /**
+         * Stores the remaining bits and the padding that lets readers fetch a whole long anywhere.
+         */
+        void finish() {
+            if (pendingBits > 0) putLong(pending);
+            putLong(0);
+            flush();
+        }
+
+        /**
+         * @param value The long to buffer.
+         */
+        private void putLong(long value) {
+            if (!out.hasRemaining()) flush();
+            out.putLong(value);
+        }
+
+        /**
+         * Writes the buffered longs to the file.
+         */
+        private void flush() {
+            try {
+                out.flip();
+                while (out.hasRemaining()) {
+                    position += channel.write(out, position);
+                }
+                out.clear();
+                channel.position(position);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Precomputed index of all solutions of boards up to 8x8, keyed by their 64-bit occupancy mask.
+ * <p>
+ * The solutions are stored in a small open table addressed by a multiplicative perfect hash:
+ * the multiplier is chosen at build time so that no two solutions share a slot, which makes
+ * every lookup a single probe and one key comparison. Each entry also carries the solution's
+ * lexicographic id, the id of its symmetry class and the symmetry that maps the class's
+ * canonical board onto it, so a finished board is classified without scanning for attacks.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public final class SolutionIndex {
+    
+    /** Largest board dimension whose occupancy fits into a 64-bit mask. */
+    public static final int MAX_INDEXED_SIZE = 8;
+    
+    /** Indexes for every supported size, built once when the class is loaded. */
+    private static final SolutionIndex[] INDEXES = new SolutionIndex[MAX_INDEXED_SIZE + 1];
+    
+    static {
+        for (int n = 1; n <= MAX_INDEXED_SIZE; n++) {
+            INDEXES[n] = new SolutionIndex(n);
+        }
+    }
+    
+    /**
+     * Classification of a solution found in the index.
+     *
+     * @param id The position of the solution in lexicographic order (0 to count-1).
+     * @param canonicalId The id of its symmetry class, in lexicographic order of the canonical boards.
+     * @param symmetry The symmetry (0-7, see {@link SymmetrySolver}) mapping the canonical board onto this one.
+     * @param classSize The number of distinct boards in the symmetry class (1, 2, 4 or 8).
+     */
+    public record SolutionInfo(int id, int canonicalId, int symmetry, int classSize) {
+    }
+    
+    /** Board dimension. */
+    private final int size;
+    
+    /** Number of indexed solutions. */
+    private final int count;
+    
+    /** Number of distinct symmetry classes. */
+    private final int classCount;
+    
+    /** Occupancy masks of the solutions, by hash slot. */
+    @Getter(AccessLevel.NONE)
+    private final long[] keys;
+    
+    /** Classification of the solutions, by hash slot ({@code null} for empty slots). */
+    @Getter(AccessLevel.NONE)
+    private final SolutionInfo[] entries;
+    
+    /** Odd multiplier of the perfect hash. */
+    @Getter(AccessLevel.NONE)
+    private final long multiplier;
+    
+    /** Right shift of the perfect hash, {@code 64 - log2(table size)}. */
+    @Getter(AccessLevel.NONE)
+    private final int shift;
+    
+    /**
+     * Builds the index by enumerating all solutions of the given size.
+     *
+     * @param n The board dimension (1 to {@link #MAX_INDEXED_SIZE}).
+     */
+    private SolutionIndex(int n) {
+        this.size = n;
+        
+        ArrayList<int[]> solutions = new ArrayList<>();
+        NQueensSolver.forEachSolution(n, queens -> solutions.add(queens.clone()));
+        TreeMap<int[], Integer> classes = new TreeMap<>(Arrays::compare);
+        for (int[] queens : solutions) {
+            classes.putIfAbsent(SymmetrySolver.canonicalForm(queens), 0);
+        }
+        int next = 0;
+        for (var e : classes.entrySet()) {
+            e.setValue(next++);
+        }
+        this.count = solutions.size();
+        this.classCount = classes.size();
+        
+        long[] masks = new long[count];
+        for (int i = 0; i < count; i++) {
+            masks[i] = mask(solutions.get(i));
+        }
+        
+        // Start with a table twice the number of solutions and grow it when no multiplier fits
+        int bits = 65 - Long.numberOfLeadingZeros(Math.max(1, count));
+        long m = 0x9E3779B97F4A7C15L;
+        for (int attempt = 1; !isPerfect(masks, m, 64 - bits); attempt++) {
+            m += 0x632BE59BD9B4E01AL;
+            if (attempt % 256 == 0) bits++;
+        }
+        this.multiplier = m;
+        this.shift = 64 - bits;
+        this.keys = new long[1 << bits];
+        this.entries = new SolutionInfo[1 << bits];
+        
+        int[] image = new int[n];
+        for (int i = 0; i < count; i++) {
+            int[] queens = solutions.get(i);
+            int[] canonical = SymmetrySolver.canonicalForm(queens);
+            int symmetry = 0;
+            while (true) {
+                SymmetrySolver.transform(canonical, symmetry, image);
+                if (Arrays.equals(image, queens)) break;
+                symmetry++;
+            }
+            int slot = slot(masks[i]);
+            keys[slot] = masks[i];
+            entries[slot] = new SolutionInfo(i, classes.get(canonical), symmetry, SymmetrySolver.classSize(queens));
+        }
+    }
+    
+    /**
+     * Returns the index for boards of the given size.
+     *
+     * @param n The board dimension (1 to {@link #MAX_INDEXED_SIZE}).
+     * @return The shared, immutable index.
+     * @throws IllegalArgumentException If the board is too large to be indexed.
+     */
+    public static SolutionIndex forSize(int n) {
+        if (n < 1 || n > MAX_INDEXED_SIZE) {
+            throw new IllegalArgumentException("Solution index supports sizes 1 to " + MAX_INDEXED_SIZE + ": " + n);
+        }
+        return INDEXES[n];
+    }
+    
+    /**
+     * Converts a solution into its occupancy mask (bit {@code row * n + col} per queen).
+     *
+     * @param queens The column of the queen in each row.
+     * @return The 64-bit occupancy mask.
+     */
+    public static long mask(int[] queens) {
+        long mask = 0L;
+        for (int r = 0; r < queens.length; r++) {
+            mask |= 1L << (r * queens.length + queens[r]);
+        }
+        return mask;
+    }
+    
+    /**
+     * Looks up a finished board with a single hash probe.
+     *
+     * @param occupancy The board's occupancy mask.
+     * @return The classification of the solution, or {@code null} if the board is not a solution.
+     */
+    public SolutionInfo lookup(long occupancy) {
+        int slot = slot(occupancy);
+        return keys[slot] == occupancy ? entries[slot] : null;
+    }
+    
+    /**
+     * Checks whether a board is one of the indexed solutions.
+     *
+     * @param occupancy The board's occupancy mask.
+     * @return true if the board is a solution.
+     */
+    public boolean contains(long occupancy) {
+        return lookup(occupancy) != null;
+    }
+    
+    /**
+     * Computes the hash slot of a mask.
+     *
+     * @param key The occupancy mask.
+     * @return The slot index.
+     */
+    private int slot(long key) {
+        return (int) ((key * multiplier) >>> shift);
+    }
+    
+    /**
+     * Checks whether a multiplier maps all masks to distinct slots.
+     *
+     * @param masks The occupancy masks of all solutions.
+     * @param m The candidate multiplier.
+     * @param s The candidate shift.
+     * @return true if the hash is collision-free.
+     */
+    private static boolean isPerfect(long[] masks, long m, int s) {
+        boolean[] used = new boolean[1 << (64 - s)];
+        for (long key : masks) {
+            int slot = (int) ((key * m) >>> s);
+            if (used[slot]) return false;
+            used[slot] = true;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,226 @@
+package model;
+
+import java.util.Objects;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Random access to the solutions of the N Queens Puzzle in lexicographic order.
+ * <p>
+ * {@link #unrank(long)} walks down one row at a time and skips every candidate whose subtree holds
+ * fewer solutions than the remaining index, so it visits about N times the branching factor
+ * instead of k solutions; {@link #rank(int[])} sums the same subtree counts. Subtree counts are
+ * kept as {@link SolverCache#SUBTREE} results of a {@link SolverCache} keyed by the prefix masks, so
+ * repeated queries reuse them while memory stays bounded; a ranker given a persistent cache reuses
+ * them across restarts. A state and its mirror image have the same count and share one entry.
+ * Instances are not thread-safe.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public class SolutionRanker {
+    
+    /** Default number of cached subtree counts. */
+    public static final int DEFAULT_CACHE_CAPACITY = 1 << 16;
+    
+    /** Board dimension. */
+    private final int size;
+    
+    /** Total number of solutions. */
+    private final long count;
+    
+    /** The mask of all columns. */
+    @Getter(AccessLevel.NONE)
+    private final int full;
+    
+    /** Subtree counts by prefix. */
+    @Getter(AccessLevel.NONE)
+    private final SolverCache cache;
+    
+    /**
+     * Constructs a ranker with the default cache capacity.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    public SolutionRanker(int n) {
+        this(n, DEFAULT_CACHE_CAPACITY);
+    }
+    
+    /**
+     * Constructs a ranker with a cache of its own in memory.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @param cacheCapacity The maximum number of cached subtree counts.
+     * @throws IllegalArgumentException If n is out of range or the capacity is not positive.
+     */
+    public SolutionRanker(int n, int cacheCapacity) {
+        this(n, new SolverCache(null, cacheCapacity));
+    }
+    
+    /**
+     * Constructs a ranker keeping its subtree counts in a shared cache.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @param cache Receives the subtree counts; it may hold results of other sizes and kinds.
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    public SolutionRanker(int n, SolverCache cache) {
+        this.size = n;
+        this.full = NQueensSolver.fullMask(n);
+        this.cache = cache;
+        // Summing the first row fills the cache for every unrank, and mirrored columns share entries
+        long total = 0;
+        for (int col = 0; col < n; col++) {
+            int bit = 1 << col;
+            total += subtreeCount(bit, (bit << 1) & full, bit >>> 1);
+        }
+        this.count = total;
+    }
+    
+    /**
+     * Returns the solution with the given lexicographic index.
+     *
+     * @param k The index (0 to {@link #getCount()} - 1).
+     * @return The column of the queen in each row.
+     * @throws IndexOutOfBoundsException If k is out of range.
+     */
+    public int[] unrank(long k) {
+        Objects.checkIndex(k, count);
+        int[] queens = new int[size];
+        int cols = 0, diag1 = 0, diag2 = 0;
+        
+        for (int row = 0; row < size; row++) {
+            int avail = full & ~(cols | diag1 | diag2);
+            while (true) {
+                int bit = avail & -avail;
+                avail ^= bit;
+                long below = subtreeCount(cols | bit, ((diag1 | bit) << 1) & full, (diag2 | bit) >>> 1);
+                if (k < below) {
+                    queens[row] = Integer.numberOfTrailingZeros(bit);
+                    cols |= bit;
+                    diag1 = ((diag1 | bit) << 1) & full;
+                    diag2 = (diag2 | bit) >>> 1;
+                    break;
+                }
+                k -= below;
+            }
+        }
+        return queens;
+    }
+    
+    /**
+     * Returns the lexicographic index of a solution.
+     *
+     * @param queens The column of the queen in each row.
+     * @return The index (0 to {@link #getCount()} - 1).
+     * @throws IllegalArgumentException If the placement has the wrong size or is not a solution.
+     */
+    public long rank(int[] queens) {
+        if (queens.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " rows but found " + queens.length);
+        }
+        long rank = 0;
+        int cols = 0, diag1 = 0, diag2 = 0;
+        
+        for (int row = 0; row < size; row++) {
+            int avail = full & ~(cols | diag1 | diag2);
+            int col = queens[row];
+            if (col < 0 || col >= size || (avail & (1 << col)) == 0) {
+                throw new IllegalArgumentException("Not a solution: queen in row " + (row + 1) + " is attacked");
+            }
+            // Count the solutions of every smaller candidate in this row
+            int smaller = avail & ((1 << col) - 1);
+            while (smaller != 0) {
+                int bit = smaller & -smaller;
+                smaller ^= bit;
+                rank += subtreeCount(cols | bit, ((diag1 | bit) << 1) & full, (diag2 | bit) >>> 1);
+            }
+            int bit = 1 << col;
+            cols |= bit;
+            diag1 = ((diag1 | bit) << 1) & full;
+            diag2 = (diag2 | bit) >>> 1;
+        }
+        return rank;
+    }
+    
+    /**
+     * Returns the lexicographic index of the solution on a board.
+     *
+     * @param model A board of this ranker's size holding exactly one queen per row.
+     * @return The index (0 to {@link #getCount()} - 1).
+     * @throws IllegalArgumentException If the board has the wrong size or is not a solution.
+     */
+    public long rank(ChessboardModel model) {
+        if (model.getSize() != size) {
+            throw new IllegalArgumentException("Expected a board of size " + size + " but found " + model.getSize());
+        }
+        int[] queens = new int[size];
+        for (int r = 0; r < size; r++) {
+            queens[r] = -1;
+            for (int c = 0; c < size; c++) {
+                if (!model.isOccupied(r, c)) continue;
+                if (queens[r] >= 0) {
+                    throw new IllegalArgumentException("Not a solution: row " + (r + 1) + " holds more than one queen");
+                }
+                queens[r] = c;
+            }
+        }
+        return rank(queens);
+    }
+    
+    /**
+     * @return The number of results currently cached, including those of a shared cache's other users.
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+    
+    /**
+     * Returns the number of completions of a prefix, from the cache if possible.
+     * The state is normalized to the smaller of itself and its mirror image.
+     *
+     * @param cols Columns already taken.
+     * @param diag1 Squares of the next row attacked along the down-right diagonals.
+     * @param diag2 Squares of the next row attacked along the down-left diagonals.
+     * @return The number of ways to fill the remaining rows.
+     */
+    private long subtreeCount(int cols, int diag1, int diag2) {
+        if (cols == full) return 1;
+        
+        int mcols = mirror(cols), mdiag1 = mirror(diag2), mdiag2 = mirror(diag1);
+        if (compare(mcols, mdiag1, mdiag2, cols, diag1, diag2) < 0) {
+            return cache.subtreeCount(size, mcols, mdiag1, mdiag2);
+        }
+        return cache.subtreeCount(size, cols, diag1, diag2);
+    }
+    
+    /**
+     * Reflects a row mask left to right.
+     *
+     * @param mask The mask of the lowest {@code size} columns.
+     * @return The mirrored mask.
+     */
+    private int mirror(int mask) {
+        return Integer.reverse(mask) >>> (Integer.SIZE - size);
+    }
+    
+    /**
+     * Orders prefix states by their masks.
+     *
+     * @param cols1 Columns of the first state.
+     * @param diag11 Down-right diagonals of the first state.
+     * @param diag21 Down-left diagonals of the first state.
+     * @param cols2 Columns of the second state.
+     * @param diag12 Down-right diagonals of the second state.
+     * @param diag22 Down-left diagonals of the second state.
+     * @return A negative number, zero or a positive number as the first state is smaller, equal or larger.
+     */
+    private static int compare(int cols1, int diag11, int diag21, int cols2, int diag12, int diag22) {
+        if (cols1 != cols2) return Integer.compare(cols1, cols2);
+        if (diag11 != diag12) return Integer.compare(diag11, diag12);
+        return Integer.compare(diag21, diag22);
+    }
+}
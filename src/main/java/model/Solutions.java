@@ -0,0 +1,216 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy streams over all solutions of the N Queens Puzzle.
+ * <p>
+ * Solutions are produced one at a time by a {@link Spliterator} that walks the backtracking tree
+ * with an explicit stack of bitmasks, so only the current path is kept in memory. Splitting hands
+ * the lower half of the remaining first-row candidates (or of the first row with more than one
+ * candidate) to a new spliterator, which keeps the lexicographic encounter order and lets
+ * {@code .parallel()} spread whole subtrees over the common pool.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+public final class Solutions {
+    
+    /** Utility class, no instances. */
+    private Solutions() {
+    }
+    
+    /**
+     * Streams all solutions in lexicographic order of the columns.
+     * Every element is a fresh array holding the column of the queen in each row.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @return A sequential stream; call {@code parallel()} to split the search.
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    public static Stream<int[]> stream(int n) {
+        return StreamSupport.stream(new SolutionSpliterator(n), false);
+    }
+    
+    /**
+     * Converts a solution into the positions of its queens.
+     *
+     * @param queens The column of the queen in each row.
+     * @return The positions, one per row.
+     */
+    public static List<Position> toPositions(int[] queens) {
+        List<Position> positions = new ArrayList<>(queens.length);
+        for (int r = 0; r < queens.length; r++) {
+            positions.add(new Position(r, queens[r]));
+        }
+        return positions;
+    }
+    
+    /**
+     * Places a solution on a new board.
+     *
+     * @param queens The column of the queen in each row.
+     * @return A model of size {@code queens.length} holding the queens.
+     * @throws IllegalArgumentException If the board is larger than {@link ChessboardModel#MAX_SIZE}.
+     */
+    public static ChessboardModel toModel(int[] queens) {
+        ChessboardModel model = new ChessboardModel(queens.length);
+        for (int r = 0; r < queens.length; r++) {
+            model.placeQueen(r, queens[r]);
+        }
+        return model;
+    }
+    
+    /**
+     * Spliterator over the subtree below a fixed prefix of rows.
+     * Before traversal starts it is described by the prefix and the candidates of row {@code base};
+     * once started it keeps one frame per row on an explicit stack.
+     */
+    private static final class SolutionSpliterator implements Spliterator<int[]> {
+        
+        /** Board dimension. */
+        private final int n;
+        
+        /** The mask of all columns. */
+        private final int full;
+        
+        /** The column of the queen in each row: the fixed prefix, then the current path. */
+        private final int[] queens;
+        
+        /** Columns taken by the rows above each stack frame. */
+        private final int[] cols;
+        
+        /** Squares of each frame's row attacked along the down-right diagonals. */
+        private final int[] diag1;
+        
+        /** Squares of each frame's row attacked along the down-left diagonals. */
+        private final int[] diag2;
+        
+        /** Candidates of each frame's row that have not been tried yet. */
+        private final int[] avail;
+        
+        /** The first row owned by this spliterator. */
+        private int base;
+        
+        /** The deepest frame on the stack, or {@code base - 1} when the subtree is exhausted. */
+        private int top;
+        
+        /** Whether traversal has begun; a started spliterator no longer splits. */
+        private boolean started;
+        
+        /**
+         * Creates the spliterator over the whole tree.
+         *
+         * @param n The board dimension.
+         */
+        SolutionSpliterator(int n) {
+            this(n, NQueensSolver.fullMask(n), 0, new int[n], 0, 0, 0, NQueensSolver.fullMask(n));
+        }
+        
+        /**
+         * Creates a spliterator over the given candidates of a row below a fixed prefix.
+         *
+         * @param n The board dimension.
+         * @param full The mask of all columns.
+         * @param base The row whose candidates are given.
+         * @param queens The fixed prefix; the array is taken over.
+         * @param cols Columns taken by the prefix.
+         * @param diag1 Squares of row {@code base} attacked along the down-right diagonals.
+         * @param diag2 Squares of row {@code base} attacked along the down-left diagonals.
+         * @param candidates Columns of row {@code base} owned by this spliterator.
+         */
+        private SolutionSpliterator(int n, int full, int base, int[] queens, int cols, int diag1, int diag2, int candidates) {
+            this.n = n;
+            this.full = full;
+            this.base = base;
+            this.top = base;
+            this.queens = queens;
+            this.cols = new int[n];
+            this.diag1 = new int[n];
+            this.diag2 = new int[n];
+            this.avail = new int[n];
+            this.cols[base] = cols;
+            this.diag1[base] = diag1;
+            this.diag2[base] = diag2;
+            this.avail[base] = candidates;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            started = true;
+            while (top >= base) {
+                int a = avail[top];
+                if (a == 0) {
+                    top--;
+                    continue;
+                }
+                int bit = a & -a;
+                avail[top] = a ^ bit;
+                queens[top] = Integer.numberOfTrailingZeros(bit);
+                int taken = cols[top] | bit;
+                if (taken == full) {
+                    action.accept(queens.clone());
+                    return true;
+                }
+                int next = top + 1;
+                cols[next] = taken;
+                diag1[next] = ((diag1[top] | bit) << 1) & full;
+                diag2[next] = (diag2[top] | bit) >>> 1;
+                avail[next] = full & ~(cols[next] | diag1[next] | diag2[next]);
+                top = next;
+            }
+            return false;
+        }
+        
+        @Override
+        public Spliterator<int[]> trySplit() {
+            if (started) return null;
+            
+            // Fix rows with a single candidate so the split happens where the tree branches
+            while (Integer.bitCount(avail[base]) == 1 && base + 1 < n) {
+                int bit = avail[base];
+                queens[base] = Integer.numberOfTrailingZeros(bit);
+                int next = base + 1;
+                cols[next] = cols[base] | bit;
+                diag1[next] = ((diag1[base] | bit) << 1) & full;
+                diag2[next] = (diag2[base] | bit) >>> 1;
+                avail[next] = full & ~(cols[next] | diag1[next] | diag2[next]);
+                base = top = next;
+            }
+            int count = Integer.bitCount(avail[base]);
+            if (count < 2) return null;
+            
+            int lower = 0;
+            int rest = avail[base];
+            for (int i = 0; i < count / 2; i++) {
+                int bit = rest & -rest;
+                lower |= bit;
+                rest ^= bit;
+            }
+            avail[base] = rest;
+            return new SolutionSpliterator(n, full, base, queens.clone(), cols[base], diag1[base], diag2[base], lower);
+        }
+        
+        /**
+         * Rough size of the subtree, used only to balance parallel splits:
+         * the number of candidates times two per remaining row.
+         *
+         * @return The estimated size of the remaining subtree.
+         */
+        @Override
+        public long estimateSize() {
+            return (long) Integer.bitCount(avail[base]) << (n - base - 1);
+        }
+        
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
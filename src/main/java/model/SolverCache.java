@@ -0,0 +1,410 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Persistent cache of solver results in front of the counting engines.
+ * <p>
+ * Results are keyed by (N, constraints, prefix): the kind of count, the board size, a 64-bit
+ * description of the constraints (0 for the empty boards counted today) and the prefix masks of a
+ * partial search, as used by {@link SolutionRanker}. They are kept in an LRU map of bounded capacity and
+ * stored in a small file of fixed-width records, least recently used first, so the order survives
+ * a restart. The file is read lazily on the first lookup and ignored if it was written under
+ * another {@link NQueensSolver#VERSION}. Results that took more than {@link #SAVE_AFTER_NANOS} to
+ * compute are saved right away; the rest are saved by {@link #save()} or {@link #close()}. A cache
+ * without a file is kept in memory only.
+ * Files are replaced atomically, so a crash never leaves a torn cache. Instances are thread-safe;
+ * the computation of a missing result and the writing of the file run outside the lock, and a
+ * result is computed once however many callers ask for it at the same time.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+public final class SolverCache implements AutoCloseable {
+
+    /** Marks the start of a cache file ("NQRC"). */
+    public static final int MAGIC = 0x4352514E;
+
+    /** Default number of cached results. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Computations slower than this are persisted immediately. */
+    public static final long SAVE_AFTER_NANOS = 100_000_000L;
+
+    /** Size of the file header in bytes. */
+    private static final int HEADER_SIZE = 16;
+
+    /** Size of one stored result in bytes. */
+    private static final int ENTRY_SIZE = 32;
+
+    /** Kind of a total solution count. */
+    public static final byte TOTAL = 1;
+
+    /** Kind of a count of solutions distinct under symmetry. */
+    public static final byte FUNDAMENTAL = 2;
+
+    /** Kind of a count of the completions of a search prefix. */
+    public static final byte SUBTREE = 3;
+
+    /**
+     * Identifies one result.
+     *
+     * @param kind What was counted ({@link #TOTAL}, {@link #FUNDAMENTAL} or {@link #SUBTREE}).
+     * @param n The board dimension.
+     * @param constraints Further constraints of the count; 0 for every kind above.
+     * @param cols Columns taken by the prefix.
+     * @param diag1 Down-right diagonal mask of the prefix.
+     * @param diag2 Down-left diagonal mask of the prefix.
+     */
+    public record Key(byte kind, int n, long constraints, int cols, int diag1, int diag2) {
+        
+        /**
+         * @param n The board dimension.
+         * @return The key of the total solution count of the board size.
+         */
+        public static Key total(int n) {
+            return new Key(TOTAL, n, 0, 0, 0, 0);
+        }
+    }
+
+    /** The cache file. */
+    private final Path file;
+
+    /** Maximum number of cached results. */
+    private final int capacity;
+
+    /** Results, least recently used first. */
+    @Getter(AccessLevel.NONE)
+    private final LinkedHashMap<Key, Long> entries;
+
+    /** Whether the file has been read. */
+    @Getter(AccessLevel.NONE)
+    private boolean loaded;
+
+    /** Whether results were added since the last save. */
+    @Getter(AccessLevel.NONE)
+    private boolean dirty;
+
+    /** Results being computed, by key. */
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentHashMap<Key, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+
+    /** Serializes the saves, so an older snapshot never replaces a newer file. */
+    @Getter(AccessLevel.NONE)
+    private final ReentrantLock saveLock = new ReentrantLock();
+
+    /** Number of results found in the cache. */
+    private long hits;
+
+    /** Number of results that had to be computed. */
+    private long misses;
+
+    /**
+     * Constructs a cache of the default capacity; the file is only read on the first lookup.
+     *
+     * @param file The cache file; it does not have to exist. Null keeps the cache in memory only.
+     */
+    public SolverCache(Path file) {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a cache; the file is only read on the first lookup.
+     *
+     * @param file The cache file; it does not have to exist. Null keeps the cache in memory only.
+     * @param capacity The maximum number of cached results.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public SolverCache(Path file, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        }
+        this.file = file;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return The cache file in the user's home directory.
+     */
+    public static Path defaultFile() {
+        return Path.of(System.getProperty("user.home"), ".nqueens", "solver-cache.bin");
+    }
+
+    /**
+     * Counts all solutions of a board size, see {@link NQueensSolver#count(int)}.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @return The number of solutions.
+     */
+    public long count(int n) {
+        return computeIfAbsent(Key.total(n), () -> NQueensSolver.count(n));
+    }
+
+    /**
+     * Counts the fundamental solutions of a board size, see {@link SymmetrySolver#count(int)}.
+     * The total count computed on the way is cached as well.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @return The number of solutions distinct under rotations and reflections.
+     */
+    public long fundamentalCount(int n) {
+        return computeIfAbsent(new Key(FUNDAMENTAL, n, 0, 0, 0, 0), () -> {
+            SymmetrySolver.SymmetryCount counts = SymmetrySolver.count(n);
+            put(Key.total(n), counts.total());
+            return counts.fundamental();
+        });
+    }
+
+    /**
+     * Counts the completions of a search prefix.
+     *
+     * @param n The board dimension.
+     * @param cols Columns taken by the prefix.
+     * @param diag1 Squares of the next row attacked along the down-right diagonals.
+     * @param diag2 Squares of the next row attacked along the down-left diagonals.
+     * @return The number of ways to fill the remaining rows.
+     */
+    public long subtreeCount(int n, int cols, int diag1, int diag2) {
+        int full = NQueensSolver.fullMask(n);
+        return computeIfAbsent(new Key(SUBTREE, n, 0, cols, diag1, diag2), () -> NQueensSolver.countFrom(full, cols, diag1, diag2));
+    }
+
+    /**
+     * Looks a result up without computing it.
+     *
+     * @param key The result.
+     * @return The cached value, or -1 if it is not cached.
+     */
+    public synchronized long getIfPresent(Key key) {
+        ensureLoaded();
+        Long value = entries.get(key);
+        return value == null ? -1 : value;
+    }
+
+    /**
+     * Returns a cached result, or computes, caches and returns it. Concurrent callers asking for
+     * the same missing result wait for the first one's computation instead of starting their own.
+     *
+     * @param key The result.
+     * @param computation Computes the result if it is missing.
+     * @return The result.
+     */
+    public long computeIfAbsent(Key key, LongSupplier computation) {
+        synchronized (this) {
+            ensureLoaded();
+            Long value = entries.get(key);
+            if (value != null) {
+                hits++;
+                return value;
+            }
+        }
+        CompletableFuture<Long> mine = new CompletableFuture<>();
+        CompletableFuture<Long> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            long value;
+            synchronized (this) {
+                // A computation that finished after the lookup above has stored its result by now
+                Long stored = entries.get(key);
+                if (stored == null) {
+                    misses++;
+                } else {
+                    hits++;
+                }
+                value = stored != null ? stored : -1;
+            }
+            if (value < 0) {
+                long start = System.nanoTime();
+                value = computation.getAsLong();
+                put(key, value);
+                if (System.nanoTime() - start > SAVE_AFTER_NANOS) {
+                    saveQuietly();
+                }
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Stores a result, e.g. one computed by a caller that reports progress.
+     *
+     * @param key The result.
+     * @param value The value.
+     */
+    public synchronized void put(Key key, long value) {
+        ensureLoaded();
+        Long old = entries.put(key, value);
+        dirty |= old == null || old != value;
+    }
+
+    /**
+     * @return The number of cached results.
+     */
+    public synchronized int size() {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    /**
+     * Writes the cache file if results were added since it was last written. The entries are
+     * copied under the lock and written after it is released, so lookups never wait for the disk.
+     *
+     * @throws IOException If the file cannot be written; the results are kept for the next save.
+     */
+    public void save() throws IOException {
+        saveLock.lock();
+        try {
+            ByteBuffer out;
+            synchronized (this) {
+                if (!dirty || file == null) return;
+                out = snapshot();
+                dirty = false;
+            }
+            try {
+                write(out);
+            } catch (IOException | RuntimeException ex) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                throw ex;
+            }
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    /**
+     * Saves the cache.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        save();
+    }
+
+    /**
+     * Waits for the computation of another caller.
+     *
+     * @param running The result of the computation.
+     * @return The result.
+     */
+    private static long await(CompletableFuture<Long> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            // The waiter fails like the computing caller did
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            if (ex.getCause() instanceof Error cause) throw cause;
+            throw ex;
+        }
+    }
+
+    /**
+     * Saves after a slow computation; a failure only costs the recomputation on the next run.
+     */
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException ex) {
+            // Kept in memory and retried on the next save
+        }
+    }
+
+    /**
+     * @return The file contents of the cached results, least recently used first.
+     */
+    private ByteBuffer snapshot() {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + entries.size() * ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(NQueensSolver.VERSION).putInt(entries.size()).putInt(ENTRY_SIZE);
+        for (Map.Entry<Key, Long> e : entries.entrySet()) {
+            Key k = e.getKey();
+            out.put(k.kind()).put((byte) 0).putShort((short) k.n()).putInt(k.cols()).putInt(k.diag1()).putInt(k.diag2())
+                    .putLong(k.constraints()).putLong(e.getValue());
+        }
+        return out.flip();
+    }
+
+    /**
+     * Writes a temporary file and moves it over the cache file. The temporary file is deleted if
+     * either step fails.
+     *
+     * @param out The file contents.
+     * @throws IOException If the file cannot be written.
+     */
+    private void write(ByteBuffer out) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "solver-cache", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) channel.write(out);
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads the file on first use. A missing, foreign, corrupt or outdated file leaves the cache empty.
+     */
+    private void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+        if (file == null) return;
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC || in.getInt() != NQueensSolver.VERSION) return;
+            int count = in.getInt();
+            if (in.getInt() != ENTRY_SIZE || in.remaining() != (long) count * ENTRY_SIZE) return;
+            for (int i = 0; i < count; i++) {
+                byte kind = in.get();
+                in.get();
+                int n = in.getShort();
+                int cols = in.getInt(), diag1 = in.getInt(), diag2 = in.getInt();
+                long constraints = in.getLong();
+                entries.put(new Key(kind, n, constraints, cols, diag1, diag2), in.getLong());
+            }
+        } catch (NoSuchFileException ex) {
+            // Nothing cached yet
+        } catch (IOException ex) {
+            // Unreadable cache, rebuilt on the next save
+        }
+    }
+}
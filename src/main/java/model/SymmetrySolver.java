@@ -0,0 +1,206 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Symmetry-reduced solver for the N Queens Puzzle.
+ * <p>
+ * The 8 symmetries of the square (rotations and reflections, the D4 group) split the
+ * solutions into classes of 1, 2, 4 or 8 boards. Only the lexicographically smallest board
+ * of every class (its canonical form) is searched for: the first row is restricted to the left
+ * half, and because no image of a canonical board may start further left, the queens on the
+ * border columns and in the last row are confined to {@code [c, n-1-c]} where {@code c} is the
+ * first-row column. Every canonical board found adds its class size to the total count.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+public final class SymmetrySolver {
+    
+    /** Number of symmetries of the square board. */
+    public static final int SYMMETRIES = 8;
+    
+    /**
+     * Result of a symmetry-reduced count.
+     *
+     * @param total The number of all solutions (92 for n = 8).
+     * @param fundamental The number of solutions that are distinct under rotations and reflections (12 for n = 8).
+     */
+    public record SymmetryCount(long total, long fundamental) {
+    }
+    
+    /** Utility class, no instances. */
+    private SymmetrySolver() {
+    }
+    
+    /**
+     * Counts all and fundamental solutions of the N Queens Puzzle.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @return The total and fundamental solution counts.
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    public static SymmetryCount count(int n) {
+        Search search = new Search(n);
+        for (int col = 0; col < (n + 1) / 2; col++) {
+            search.run(col);
+        }
+        return new SymmetryCount(search.total, search.fundamental);
+    }
+    
+    /**
+     * Applies one of the 8 board symmetries to a solution.
+     * Symmetry 0 is the identity; 1-3 mirror columns, rows or both; 4-7 additionally swap rows and columns.
+     *
+     * @param queens The column of the queen in each row (one queen per row and column).
+     * @param symmetry The symmetry index (0 to 7).
+     * @param out Receives the transformed board, must have the same length and differ from queens.
+     */
+    static void transform(int[] queens, int symmetry, int[] out) {
+        int n = queens.length;
+        for (int r = 0; r < n; r++) {
+            int c = queens[r];
+            int row = (symmetry & 2) != 0 ? n - 1 - r : r;
+            int col = (symmetry & 1) != 0 ? n - 1 - c : c;
+            if ((symmetry & 4) != 0) {
+                out[col] = row;
+            } else {
+                out[row] = col;
+            }
+        }
+    }
+    
+    /**
+     * Returns the canonical form of a solution: the lexicographically smallest of its 8 images.
+     *
+     * @param queens The column of the queen in each row (one queen per row and column).
+     * @return A new array holding the canonical board.
+     */
+    public static int[] canonicalForm(int[] queens) {
+        int[] best = queens.clone();
+        int[] image = new int[queens.length];
+        for (int s = 1; s < SYMMETRIES; s++) {
+            transform(queens, s, image);
+            if (Arrays.compare(image, best) < 0) {
+                System.arraycopy(image, 0, best, 0, image.length);
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Returns the number of distinct boards in the symmetry class of a solution.
+     *
+     * @param queens The column of the queen in each row (one queen per row and column).
+     * @return 1, 2, 4 or 8.
+     */
+    public static int classSize(int[] queens) {
+        int[] image = new int[queens.length];
+        int fixed = 1;
+        for (int s = 1; s < SYMMETRIES; s++) {
+            transform(queens, s, image);
+            if (Arrays.equals(image, queens)) {
+                fixed++;
+            }
+        }
+        return SYMMETRIES / fixed;
+    }
+    
+    /**
+     * Depth-first search over canonical candidates with reusable scratch arrays.
+     */
+    private static final class Search {
+        
+        /** Board dimension. */
+        private final int n;
+        
+        /** The mask of all columns. */
+        private final int full;
+        
+        /** Columns forbidden per row by the canonical-form bounds of the current first-row column. */
+        private final int[] forbidden;
+        
+        /** The column of the queen in each row filled so far. */
+        private final int[] queens;
+        
+        /** Scratch array receiving the images of a completed board. */
+        private final int[] image;
+        
+        /** Number of all solutions found. */
+        private long total;
+        
+        /** Number of canonical solutions found. */
+        private long fundamental;
+        
+        /**
+         * @param n Board dimension.
+         */
+        Search(int n) {
+            this.n = n;
+            this.full = NQueensSolver.fullMask(n);
+            this.forbidden = new int[n];
+            this.queens = new int[n];
+            this.image = new int[n];
+        }
+        
+        /**
+         * Searches all canonical boards whose first-row queen stands in the given column.
+         *
+         * @param first The column of the first-row queen.
+         */
+        void run(int first) {
+            int border = 1 | (1 << (n - 1));
+            int middle = full & ~((1 << first) - 1) & ((1 << (n - first)) - 1);
+            for (int r = 0; r < n; r++) {
+                forbidden[r] = (r < first || r > n - 1 - first) ? border : 0;
+            }
+            forbidden[n - 1] |= full & ~middle;
+            
+            int bit = 1 << first;
+            queens[0] = first;
+            if (n == 1) {
+                completed();
+                return;
+            }
+            search(1, bit, (bit << 1) & full, bit >>> 1);
+        }
+        
+        /**
+         * Fills rows from {@code row} on within the canonical bounds.
+         *
+         * @param row The row being filled.
+         * @param cols Columns already taken.
+         * @param diag1 Down-right diagonal mask of the row.
+         * @param diag2 Down-left diagonal mask of the row.
+         */
+        private void search(int row, int cols, int diag1, int diag2) {
+            int avail = full & ~(cols | diag1 | diag2 | forbidden[row]);
+            while (avail != 0) {
+                int bit = avail & -avail;
+                avail ^= bit;
+                queens[row] = Integer.numberOfTrailingZeros(bit);
+                if (row == n - 1) {
+                    completed();
+                } else {
+                    search(row + 1, cols | bit, ((diag1 | bit) << 1) & full, (diag2 | bit) >>> 1);
+                }
+            }
+        }
+        
+        /**
+         * Checks whether the completed board is canonical and, if so, adds its class.
+         */
+        private void completed() {
+            int fixed = 1;
+            for (int s = 1; s < SYMMETRIES; s++) {
+                transform(queens, s, image);
+                int cmp = Arrays.compare(image, queens);
+                if (cmp < 0) return;
+                if (cmp == 0) fixed++;
+            }
+            fundamental++;
+            total += SYMMETRIES / fixed;
+        }
+    }
+}
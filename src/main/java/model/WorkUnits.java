@@ -0,0 +1,146 @@
+package model;
+
+import java.util.Arrays;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The N Queens search tree cut into independent work units.
+ * <p>
+ * A unit is a valid placement of the first {@code depth} rows, stored as its bitmask state
+ * (columns and both diagonals) in flat primitive arrays. Only first-row columns of the left
+ * half are generated; their units carry a weight of 2 for the mirrored right half, while units
+ * starting in the middle column of an odd board have a weight of 1. Units are kept in
+ * lexicographic order of their prefixes, so a unit index identifies the same subtree in every run.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+@Getter
+class WorkUnits {
+    
+    /** Board dimension. */
+    private final int n;
+    
+    /** Number of rows fixed in every unit. */
+    private final int depth;
+    
+    /** Number of units. */
+    private int size;
+    
+    /** Columns taken by each unit's prefix. */
+    @Getter(AccessLevel.NONE)
+    private int[] cols = new int[64];
+    
+    /** Down-right diagonal mask of the first free row of each unit. */
+    @Getter(AccessLevel.NONE)
+    private int[] diag1 = new int[64];
+    
+    /** Down-left diagonal mask of the first free row of each unit. */
+    @Getter(AccessLevel.NONE)
+    private int[] diag2 = new int[64];
+    
+    /** Multiplier of each unit's count (2 for mirrored prefixes, 1 for the middle column). */
+    @Getter(AccessLevel.NONE)
+    private byte[] weights = new byte[64];
+    
+    /**
+     * @param n Board dimension.
+     * @param depth Number of rows fixed in every unit.
+     */
+    private WorkUnits(int n, int depth) {
+        this.n = n;
+        this.depth = depth;
+    }
+    
+    /**
+     * Cuts the search tree of an N x N board after the given number of rows.
+     *
+     * @param n The board dimension (1 to {@link NQueensSolver#MAX_N}).
+     * @param splitDepth The requested number of fixed rows, capped at n.
+     * @return The work units in lexicographic prefix order.
+     * @throws IllegalArgumentException If n is out of range.
+     */
+    static WorkUnits split(int n, int splitDepth) {
+        int full = NQueensSolver.fullMask(n);
+        WorkUnits units = new WorkUnits(n, Math.min(splitDepth, n));
+        for (int col = 0; col < (n + 1) / 2; col++) {
+            int bit = 1 << col;
+            byte weight = (byte) (n % 2 == 1 && col == n / 2 ? 1 : 2);
+            units.expand(full, 1, bit, (bit << 1) & full, bit >>> 1, weight);
+        }
+        return units;
+    }
+    
+    /**
+     * Extends a prefix row by row until it reaches the split depth and stores it.
+     *
+     * @param full The mask of all columns.
+     * @param row The next row to fill.
+     * @param cols Columns already taken.
+     * @param diag1 Down-right diagonal mask of the next row.
+     * @param diag2 Down-left diagonal mask of the next row.
+     * @param weight Multiplier of the prefix.
+     */
+    private void expand(int full, int row, int cols, int diag1, int diag2, byte weight) {
+        if (row == depth) {
+            add(cols, diag1, diag2, weight);
+            return;
+        }
+        int avail = full & ~(cols | diag1 | diag2);
+        while (avail != 0) {
+            int bit = avail & -avail;
+            avail ^= bit;
+            expand(full, row + 1, cols | bit, ((diag1 | bit) << 1) & full, (diag2 | bit) >>> 1, weight);
+        }
+    }
+    
+    /**
+     * Appends one unit, growing the arrays when needed.
+     *
+     * @param c Columns taken.
+     * @param d1 Down-right diagonal mask.
+     * @param d2 Down-left diagonal mask.
+     * @param weight Multiplier of the unit.
+     */
+    private void add(int c, int d1, int d2, byte weight) {
+        if (size == cols.length) {
+            cols = Arrays.copyOf(cols, size * 2);
+            diag1 = Arrays.copyOf(diag1, size * 2);
+            diag2 = Arrays.copyOf(diag2, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        cols[size] = c;
+        diag1[size] = d1;
+        diag2[size] = d2;
+        weights[size] = weight;
+        size++;
+    }
+    
+    /**
+     * Hashes the prefixes of all units, so a stored unit index can be checked against this split.
+     *
+     * @return A 64-bit fingerprint of the masks and weights in unit order.
+     */
+    long fingerprint() {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < size; i++) {
+            hash = (hash ^ cols[i]) * 0x100000001B3L;
+            hash = (hash ^ diag1[i]) * 0x100000001B3L;
+            hash = (hash ^ diag2[i]) * 0x100000001B3L;
+            hash = (hash ^ weights[i]) * 0x100000001B3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * Counts the solutions below one unit, including its mirror weight.
+     *
+     * @param unit The unit index.
+     * @return The weighted number of solutions of the unit's subtree.
+     */
+    long count(int unit) {
+        return weights[unit] * NQueensSolver.countFrom((1 << n) - 1, cols[unit], diag1[unit], diag2[unit]);
+    }
+}
@@ -0,0 +1,489 @@
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+import model.BoardChangeEvent;
+import model.BoardChangeListener;
+import model.BoardLayout;
+import model.ChessboardModel;
+import model.Position;
+
+/**
+ * A single custom-painted component displaying a board of any size.
+ * <p>
+ * Only the cells inside the clip rectangle are drawn, so a repaint costs the same for an 8x8
+ * board and the largest board of the model ({@link ChessboardModel#MAX_SIZE} rows). Large cells are drawn as shapes; small ones (zoomed out) are
+ * written straight into the pixel array of a reused image, one block per cell. The component
+ * is meant to sit in a {@link JScrollPane}: Ctrl + mouse wheel zooms around the cursor, down
+ * to one pixel per cell. The optional heatmap tints every square by the number of queens
+ * attacking it, and queens that are attacked are drawn in red.
+ * </p>
+ * <p>
+ * A displayed {@link ChessboardModel} is followed through its change events. They may arrive on
+ * any thread and at any rate; the changed squares are queued and applied once per pass of the
+ * Event Dispatch Thread, repainting only the changed cells and the queens on their lines (whose
+ * color may flip). Finding those queens scans the four lines, so a flush costs O(N) board lookups
+ * per changed square, but never paints more than a few cells; beyond {@link #MAX_DIRTY_CELLS}
+ * queued squares, and with the heatmap on (a change recolors whole lines), the view is repainted.
+ * </p>
+ * <p>
+ * Instances are created with {@link #create()}, which wires the mouse wheel after construction.
+ * </p>
+ *
+ * @author Adam
+ * @version 5.0
+ */
+public class BoardCanvas extends JComponent implements Scrollable {
+    
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+    
+    /** Smallest zoom level in pixels per cell. */
+    public static final int MIN_CELL_SIZE = 1;
+    
+    /** Largest zoom level in pixels per cell. */
+    public static final int MAX_CELL_SIZE = 64;
+    
+    /** Cells smaller than this are rasterized instead of drawn as shapes. */
+    private static final int RASTER_CELL_SIZE = 8;
+    
+    /** Color of light squares. */
+    private static final int LIGHT = 0xFFFFFF;
+    
+    /** Color of dark squares. */
+    private static final int DARK = 0xC0C0C0;
+    
+    /** Color of queens nobody attacks. */
+    private static final int QUEEN = 0x202020;
+    
+    /** Color of attacked queens. */
+    private static final int ATTACKED_QUEEN = 0xD02020;
+    
+    /** Heatmap color of the most attacked squares. */
+    private static final int HEAT = 0xFF8000;
+    
+    /** Number of attackers at which the heatmap color is saturated. */
+    private static final int HEAT_SATURATION = 4;
+    
+    /** Colors of empty squares, by {@link #squareShade(int, int)}. */
+    private static final int[] SQUARE_RGB = new int[2 * (HEAT_SATURATION + 1)];
+    
+    static {
+        for (int attackers = 0; attackers <= HEAT_SATURATION; attackers++) {
+            SQUARE_RGB[attackers] = blend(LIGHT, HEAT, attackers / (double) HEAT_SATURATION);
+            SQUARE_RGB[HEAT_SATURATION + 1 + attackers] = blend(DARK, HEAT, attackers / (double) HEAT_SATURATION);
+        }
+    }
+    
+    /** {@link #SQUARE_RGB} as paints, so drawing cells as shapes creates no colors. */
+    private static final Color[] SQUARE_COLORS = Arrays.stream(SQUARE_RGB).mapToObj(Color::new).toArray(Color[]::new);
+    
+    /** Paint of queens nobody attacks. */
+    private static final Color QUEEN_COLOR = new Color(QUEEN);
+    
+    /** Paint of attacked queens. */
+    private static final Color ATTACKED_QUEEN_COLOR = new Color(ATTACKED_QUEEN);
+    
+    /** Queued changed squares above which the whole view is repainted instead. */
+    private static final int MAX_DIRTY_CELLS = 256;
+    
+    /** The displayed board, or null for none. */
+    private transient BoardLayout layout;
+    
+    /** Zoom level in pixels per cell. */
+    private int cellSize = 48;
+    
+    /** Whether squares are tinted by the number of attackers. */
+    private boolean heatmap;
+    
+    /** Reused pixel buffer for zoomed-out painting. */
+    private transient BufferedImage buffer;
+    
+    /** Queues the changes of a displayed model; one instance, so it can be removed again. */
+    private final transient BoardChangeListener changeListener = this::queueChange;
+    
+    /** Guards the queue of changed squares, which is filled by any thread. */
+    private final transient Object pendingLock = new Object();
+    
+    /** Changed squares ({@code row * size + col}) not yet repainted. */
+    private int[] pending = new int[16];
+    
+    /** Number of queued squares. */
+    private int pendingCount;
+    
+    /** Whether too many squares changed to repaint them one by one. */
+    private boolean pendingAll;
+    
+    /** Whether a flush of the queue is already posted to the Event Dispatch Thread. */
+    private boolean flushScheduled;
+    
+    /**
+     * Use {@link #create()}.
+     */
+    private BoardCanvas() {
+    }
+    
+    /**
+     * Creates an empty canvas; Ctrl + mouse wheel changes the zoom.
+     * The setup calls overridable Swing methods, so it runs once the canvas is fully constructed.
+     *
+     * @return The canvas.
+     */
+    public static BoardCanvas create() {
+        BoardCanvas canvas = new BoardCanvas();
+        canvas.setOpaque(true);
+        canvas.setBackground(new Color(0xE0E0E0));
+        canvas.setToolTipText("");
+        canvas.addMouseWheelListener(canvas::handleWheel);
+        return canvas;
+    }
+    
+    /**
+     * Zooms on Ctrl + wheel; a plain wheel is passed on so the scroll pane scrolls as usual.
+     *
+     * @param e The wheel event.
+     */
+    private void handleWheel(MouseWheelEvent e) {
+        if (e.isControlDown()) {
+            zoomAt(e.getPoint(), e.getWheelRotation() < 0 ? cellSize * 2 : cellSize / 2);
+        } else if (getParent() != null) {
+            getParent().dispatchEvent(SwingUtilities.convertMouseEvent(this, e, getParent()));
+        }
+    }
+    
+    /**
+     * Displays a board. The zoom is chosen so that small boards fill about 400 pixels.
+     * A {@link ChessboardModel} is followed through its change events until another board is shown.
+     *
+     * @param layout The board to display, or null to clear the canvas.
+     */
+    public void setBoardLayout(BoardLayout layout) {
+        if (layout != this.layout) {
+            if (this.layout instanceof ChessboardModel old) old.removeBoardChangeListener(changeListener);
+            if (layout instanceof ChessboardModel model) model.addBoardChangeListener(changeListener);
+        }
+        boolean resized = this.layout == null || layout == null || this.layout.getSize() != layout.getSize();
+        this.layout = layout;
+        if (resized && layout != null) {
+            cellSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, 400 / Math.max(1, layout.getSize())));
+            revalidate();
+        }
+        repaint();
+    }
+    
+    /**
+     * @return The displayed board, or null.
+     */
+    public BoardLayout getBoardLayout() {
+        return layout;
+    }
+    
+    /**
+     * @return The zoom level in pixels per cell.
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+    
+    /**
+     * Changes the zoom level, keeping the top-left corner of the view in place.
+     *
+     * @param size The new number of pixels per cell, clamped to the supported range.
+     */
+    public void setCellSize(int size) {
+        zoomAt(new Point(0, 0), size);
+    }
+    
+    /**
+     * Turns the conflict heatmap on or off.
+     *
+     * @param heatmap true to tint squares by the number of attacking queens.
+     */
+    public void setHeatmap(boolean heatmap) {
+        this.heatmap = heatmap;
+        repaint();
+    }
+    
+    /**
+     * @return true if the conflict heatmap is shown.
+     */
+    public boolean isHeatmap() {
+        return heatmap;
+    }
+    
+    /**
+     * Changes the zoom level so that the cell under a point stays under it.
+     *
+     * @param anchor The point in component coordinates.
+     * @param size The new number of pixels per cell.
+     */
+    private void zoomAt(Point anchor, int size) {
+        int newSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, size));
+        if (newSize == cellSize) return;
+        
+        JViewport viewport = getParent() instanceof JViewport vp ? vp : null;
+        Point view = viewport != null ? viewport.getViewPosition() : new Point();
+        double scale = (double) newSize / cellSize;
+        cellSize = newSize;
+        revalidate();
+        repaint();
+        if (viewport != null) {
+            int x = (int) Math.round(anchor.x * scale) - (anchor.x - view.x);
+            int y = (int) Math.round(anchor.y * scale) - (anchor.y - view.y);
+            SwingUtilities.invokeLater(() -> viewport.setViewPosition(new Point(Math.max(0, x), Math.max(0, y))));
+        }
+    }
+    
+    /**
+     * Returns the pixel bounds of a cell.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The rectangle covered by the cell.
+     */
+    public Rectangle cellBounds(int row, int col) {
+        return new Rectangle(col * cellSize, row * cellSize, cellSize, cellSize);
+    }
+    
+    /**
+     * Queues the squares of a change and posts a flush unless one is already pending.
+     * Called on the thread that changed the model.
+     *
+     * @param event The change.
+     */
+    private void queueChange(BoardChangeEvent event) {
+        int[] squares = event.squares();
+        synchronized (pendingLock) {
+            if (!pendingAll) {
+                if (pendingCount + squares.length > MAX_DIRTY_CELLS) {
+                    pendingAll = true;
+                } else {
+                    if (pendingCount + squares.length > pending.length) {
+                        pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingCount + squares.length));
+                    }
+                    System.arraycopy(squares, 0, pending, pendingCount, squares.length);
+                    pendingCount += squares.length;
+                }
+            }
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        SwingUtilities.invokeLater(this::flushChanges);
+    }
+    
+    /**
+     * Repaints the cells changed since the last flush, on the Event Dispatch Thread.
+     * Each changed square costs a scan of its four lines for queens; Swing merges the requested
+     * rectangles into one paint per frame.
+     */
+    private void flushChanges() {
+        int[] squares;
+        boolean all;
+        synchronized (pendingLock) {
+            squares = Arrays.copyOf(pending, pendingCount);
+            all = pendingAll;
+            pendingCount = 0;
+            pendingAll = false;
+            flushScheduled = false;
+        }
+        if (layout == null) return;
+        if (all || heatmap) {
+            repaint();
+            return;
+        }
+        
+        int n = layout.getSize();
+        for (int sq : squares) {
+            int row = sq / n, col = sq % n;
+            // Late events of a previously displayed board are covered by its full repaint
+            if (row >= n) continue;
+            repaint(cellBounds(row, col));
+            // An added or removed queen changes the color of every queen on its four lines
+            for (int i = 0; i < n; i++) {
+                repaintQueen(row, i);
+                repaintQueen(i, col);
+                repaintQueen(i, col + i - row);
+                repaintQueen(i, col - i + row);
+            }
+        }
+    }
+    
+    /**
+     * Repaints a cell if it lies on the board and holds a queen.
+     *
+     * @param row The row index.
+     * @param col The column index, possibly outside the board.
+     */
+    private void repaintQueen(int row, int col) {
+        if (col >= 0 && col < layout.getSize() && layout.isQueen(row, col)) {
+            repaint(cellBounds(row, col));
+        }
+    }
+    
+    @Override
+    public Dimension getPreferredSize() {
+        long side = layout == null ? 0 : (long) layout.getSize() * cellSize;
+        int clamped = (int) Math.min(Integer.MAX_VALUE, side);
+        return new Dimension(clamped, clamped);
+    }
+    
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        if (layout == null) return null;
+        int row = e.getY() / cellSize, col = e.getX() / cellSize;
+        if (row >= layout.getSize() || col >= layout.getSize()) return null;
+        
+        String square = new Position(row, col).toNotation();
+        int attackers = layout.attackCount(row, col);
+        return (layout.isQueen(row, col) ? "Queen on " : "") + square + ", attacked by " + attackers;
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        if (clip.isEmpty()) return;
+        
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (layout == null) return;
+        
+        int n = layout.getSize();
+        int firstRow = clip.y / cellSize, lastRow = Math.min(n - 1, (clip.y + clip.height - 1) / cellSize);
+        int firstCol = clip.x / cellSize, lastCol = Math.min(n - 1, (clip.x + clip.width - 1) / cellSize);
+        if (firstRow > lastRow || firstCol > lastCol) return;
+        
+        if (cellSize < RASTER_CELL_SIZE) {
+            paintRaster(g, clip, firstRow, lastRow, firstCol, lastCol);
+        } else {
+            paintShapes(g, firstRow, lastRow, firstCol, lastCol);
+        }
+    }
+    
+    /**
+     * Draws the visible cells as rectangles and the queens as discs.
+     *
+     * @param g The graphics context.
+     * @param firstRow The first visible row.
+     * @param lastRow The last visible row.
+     * @param firstCol The first visible column.
+     * @param lastCol The last visible column.
+     */
+    private void paintShapes(Graphics g, int firstRow, int lastRow, int firstCol, int lastCol) {
+        if (g instanceof Graphics2D g2) {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        int inset = Math.max(1, cellSize / 6);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                int x = c * cellSize, y = r * cellSize;
+                g.setColor(SQUARE_COLORS[squareShade(r, c)]);
+                g.fillRect(x, y, cellSize, cellSize);
+                if (layout.isQueen(r, c)) {
+                    g.setColor(layout.attackCount(r, c) > 0 ? ATTACKED_QUEEN_COLOR : QUEEN_COLOR);
+                    g.fillOval(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Writes the visible cells into the reused pixel buffer, one solid block per cell, and draws it.
+     *
+     * @param g The graphics context.
+     * @param clip The area to repaint.
+     * @param firstRow The first visible row.
+     * @param lastRow The last visible row.
+     * @param firstCol The first visible column.
+     * @param lastCol The last visible column.
+     */
+    private void paintRaster(Graphics g, Rectangle clip, int firstRow, int lastRow, int firstCol, int lastCol) {
+        int w = clip.width, h = clip.height;
+        if (buffer == null || buffer.getWidth() < w || buffer.getHeight() < h) {
+            buffer = new BufferedImage(Math.max(w, buffer == null ? 0 : buffer.getWidth()),
+                    Math.max(h, buffer == null ? 0 : buffer.getHeight()), BufferedImage.TYPE_INT_RGB);
+        }
+        int stride = buffer.getWidth();
+        int[] pixels = ((DataBufferInt) buffer.getRaster().getDataBuffer()).getData();
+        int background = getBackground().getRGB() & 0xFFFFFF;
+        for (int y = 0; y < h; y++) {
+            Arrays.fill(pixels, y * stride, y * stride + w, background);
+        }
+        
+        for (int r = firstRow; r <= lastRow; r++) {
+            int y0 = Math.max(r * cellSize, clip.y) - clip.y;
+            int y1 = Math.min((r + 1) * cellSize, clip.y + h) - clip.y;
+            for (int c = firstCol; c <= lastCol; c++) {
+                int color = layout.isQueen(r, c)
+                        ? (layout.attackCount(r, c) > 0 ? ATTACKED_QUEEN : QUEEN)
+                        : SQUARE_RGB[squareShade(r, c)];
+                int x0 = Math.max(c * cellSize, clip.x) - clip.x;
+                int x1 = Math.min((c + 1) * cellSize, clip.x + w) - clip.x;
+                for (int y = y0; y < y1; y++) {
+                    Arrays.fill(pixels, y * stride + x0, y * stride + x1, color);
+                }
+            }
+        }
+        g.drawImage(buffer, clip.x, clip.y, clip.x + w, clip.y + h, 0, 0, w, h, null);
+    }
+    
+    /**
+     * Picks the color of an empty square: the checkerboard pattern, tinted by the heatmap.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The index of the color in {@link #SQUARE_RGB} and {@link #SQUARE_COLORS}.
+     */
+    private int squareShade(int row, int col) {
+        int base = (row + col) % 2 == 0 ? 0 : HEAT_SATURATION + 1;
+        if (!heatmap) return base;
+        return base + Math.min(HEAT_SATURATION, layout.attackCount(row, col));
+    }
+    
+    /**
+     * Mixes two RGB colors.
+     *
+     * @param from The color at weight 0.
+     * @param to The color at weight 1.
+     * @param weight The weight of the second color (0 to 1).
+     * @return The mixed color.
+     */
+    private static int blend(int from, int to, double weight) {
+        int r = (int) (((from >> 16) & 0xFF) * (1 - weight) + ((to >> 16) & 0xFF) * weight);
+        int gr = (int) (((from >> 8) & 0xFF) * (1 - weight) + ((to >> 8) & 0xFF) * weight);
+        int b = (int) ((from & 0xFF) * (1 - weight) + (to & 0xFF) * weight);
+        return (r << 16) | (gr << 8) | b;
+    }
+    
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension preferred = getPreferredSize();
+        return new Dimension(Math.min(preferred.width, 640), Math.min(preferred.height, 640));
+    }
+    
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return Math.max(cellSize, 16);
+    }
+    
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+    
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -3,30 +3,46 @@ package view;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
 
-import model.SquareState;
+import model.BoardLayout;
+import model.NQueensSolver;
 
 /**
  * The secondary GUI window that visualizes the chessboard.
- * It displays the 8x8 grid with placed queens and shows the validation status.
+ * It displays the board with the placed queens on a zoomable {@link BoardCanvas}
+ * and shows the validation status.
  *
  * @author Adam
  * @version 4.0
  */
 public class ChessboardBoardView extends JFrame {
     
-    /**
-     * A grid of JButtons representing the chessboard cells.
-     * Stored as a list of rows to allow easy indexing.
-     */
-    private final ArrayList<ArrayList<JButton>> cells = new ArrayList<ArrayList<JButton>>(8);
+    /** Custom-painted board, showing only the visible part of boards of any size. */
+    private final BoardCanvas canvas = BoardCanvas.create();
+    
+    /** Toggle of the conflict heatmap. */
+    private final JCheckBox heatmapBox = new JCheckBox("Heatmap");
     
     /** Label at the bottom displaying the placement status (Success/Failure). */
     private final JLabel statusLabel = new JLabel("", SwingConstants.CENTER);
     
     /** Button to reset the board and start a new game. */
     private final JButton resetButton = new JButton("Start New / Reset");
+    
+    /** Button to show a solution of the board in the background. */
+    private final JButton solveButton = new JButton("Solve");
+    
+    /** Button to count all solutions of an N x N board in the background. */
+    private final JButton countButton = new JButton("Count");
+    
+    /** Board dimension used by the "Count" button. */
+    private final JSpinner countSizeSpinner = new JSpinner(new SpinnerNumberModel(8, 1, NQueensSolver.MAX_N, 1));
+    
+    /** Button to cancel the running background computation. */
+    private final JButton cancelButton = new JButton("Cancel");
+    
+    /** Progress of the running background computation. */
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
 
     /**
      * Constructs the ChessboardBoardView and initializes the GUI components.
@@ -51,47 +67,27 @@ public class ChessboardBoardView extends JFrame {
         JPanel mainPanel = new JPanel(new BorderLayout(6, 6));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
         
-        // Top: headers (A..H)
-        JPanel north = new JPanel(new GridLayout(1, 9));
-        north.add(new JLabel("")); // corner
-        for (char c = 'A'; c <= 'H'; c++) {
-            JLabel l = new JLabel(String.valueOf(c), SwingConstants.CENTER);
-            north.add(l);
-        }
-        mainPanel.add(north, BorderLayout.NORTH);
-
-        // Center: board with row labels
-        JPanel center = new JPanel(new GridLayout(8, 9));
-        
-        for (int r = 0; r < 8; r++) {
-            // A. Create a list for the row of buttons
-            ArrayList<JButton> rowList = new ArrayList<>();
-            
-            // row number label
-            center.add(new JLabel(String.valueOf(r+1), SwingConstants.CENTER));
-            
-            for (int c = 0; c < 8; c++) {
-                JButton cell = new JButton("#");
-                cell.setEnabled(false);
-                cell.setFocusable(false);
-                
-                if ((r + c) % 2 == 0) cell.setBackground(Color.WHITE);
-                else cell.setBackground(Color.LIGHT_GRAY);
-                
-                // B. Add button to row list
-                rowList.add(cell);
-                
-                // Add button to panel (visually)
-                center.add(cell);
-            }
-            
-            // C. Add row to main cells list
-            cells.add(rowList);
-        }
-        
-        mainPanel.add(center, BorderLayout.CENTER);
+        // Center: the board in a scroll pane (Ctrl + wheel zooms)
+        JScrollPane scroll = new JScrollPane(canvas);
+        scroll.getViewport().setBackground(canvas.getBackground());
+        mainPanel.add(scroll, BorderLayout.CENTER);
         cp.add(mainPanel, BorderLayout.CENTER);
 
+        // Zoom and heatmap controls above the board
+        JPanel viewControls = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        JButton zoomOut = new JButton("-");
+        JButton zoomIn = new JButton("+");
+        zoomOut.setToolTipText("Zoom out (or Ctrl + mouse wheel)");
+        zoomIn.setToolTipText("Zoom in (or Ctrl + mouse wheel)");
+        zoomOut.addActionListener(e -> canvas.setCellSize(canvas.getCellSize() / 2));
+        zoomIn.addActionListener(e -> canvas.setCellSize(canvas.getCellSize() * 2));
+        heatmapBox.setToolTipText("Tint every square by the number of queens attacking it");
+        heatmapBox.addActionListener(e -> canvas.setHeatmap(heatmapBox.isSelected()));
+        viewControls.add(zoomOut);
+        viewControls.add(zoomIn);
+        viewControls.add(heatmapBox);
+        mainPanel.add(viewControls, BorderLayout.NORTH);
+
         // Bottom: status and reset button
         JPanel southPanel = new JPanel(new BorderLayout());
         statusLabel.setBorder(BorderFactory.createEmptyBorder(6,6,6,6));
@@ -106,31 +102,39 @@ public class ChessboardBoardView extends JFrame {
         buttonWrapper.add(resetButton);
         southPanel.add(buttonWrapper, BorderLayout.SOUTH);
         
+        // Status bar: background actions and their progress
+        JPanel statusBar = new JPanel(new BorderLayout(6, 6));
+        statusBar.setBorder(BorderFactory.createEmptyBorder(0, 6, 0, 6));
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        solveButton.setToolTipText("Show a solution containing the placed queens, or any solution if there is none");
+        countButton.setToolTipText("Count all solutions of an N x N board");
+        cancelButton.setToolTipText("Stop the running computation");
+        cancelButton.setEnabled(false);
+        actions.add(solveButton);
+        actions.add(new JLabel("N:"));
+        actions.add(countSizeSpinner);
+        actions.add(countButton);
+        actions.add(cancelButton);
+        statusBar.add(actions, BorderLayout.NORTH);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Idle");
+        statusBar.add(progressBar, BorderLayout.SOUTH);
+        southPanel.add(statusBar, BorderLayout.CENTER);
+        
         cp.add(southPanel, BorderLayout.SOUTH);
 
-        setPreferredSize(new Dimension(450, 480));
+        setPreferredSize(new Dimension(520, 640));
     }
 
     /**
-     * Updates the visual representation of the board based on the model state.
-     * Iterates through the provided board state and updates the text of corresponding JButtons.
+     * Displays a board. The canvas reads the layout directly while painting, so it must only
+     * change on the Event Dispatch Thread. Later changes of a displayed model are repainted
+     * by the canvas itself, cell by cell, so the board does not have to be set again.
      *
-     * @param board The current state of the chessboard, represented as a list of lists of {@link SquareState}.
+     * @param layout The board to display, usually the model.
      */
-    public void updateBoard(ArrayList<ArrayList<SquareState>> board) {
-        if (board == null || board.size() != 8) return;
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                SquareState state = board.get(r).get(c);
-                JButton btn = cells.get(r).get(c);
-                
-                if (state == SquareState.QUEEN) {
-                    btn.setText("X");
-                } else {
-                    btn.setText("#");
-                }
-            }
-        }
+    public void setBoardLayout(BoardLayout layout) {
+        canvas.setBoardLayout(layout);
     }
 
     /**
@@ -150,4 +154,72 @@ public class ChessboardBoardView extends JFrame {
     public void addResetListener(ActionListener l) {
         resetButton.addActionListener(l);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Registers an ActionListener for the "Solve" button.
+     *
+     * @param l The ActionListener to handle the button click event.
+     */
+    public void addSolveListener(ActionListener l) {
+        solveButton.addActionListener(l);
+    }
+    
+    /**
+     * Registers an ActionListener for the "Count" button.
+     *
+     * @param l The ActionListener to handle the button click event.
+     */
+    public void addCountListener(ActionListener l) {
+        countButton.addActionListener(l);
+    }
+    
+    /**
+     * Registers an ActionListener for the "Cancel" button.
+     *
+     * @param l The ActionListener to handle the button click event.
+     */
+    public void addCancelListener(ActionListener l) {
+        cancelButton.addActionListener(l);
+    }
+    
+    /**
+     * Retrieves the board dimension selected for counting.
+     *
+     * @return The value of the N spinner.
+     */
+    public int getCountSize() {
+        return (Integer) countSizeSpinner.getValue();
+    }
+    
+    /**
+     * Switches the controls between the idle state and a running background computation.
+     * While busy only "Cancel" is enabled.
+     *
+     * @param busy true while a computation is running.
+     * @param message The text shown in the progress bar.
+     */
+    public void setBusy(boolean busy, String message) {
+        solveButton.setEnabled(!busy);
+        countButton.setEnabled(!busy);
+        countSizeSpinner.setEnabled(!busy);
+        resetButton.setEnabled(!busy);
+        cancelButton.setEnabled(busy);
+        progressBar.setIndeterminate(false);
+        progressBar.setValue(0);
+        progressBar.setString(message);
+    }
+    
+    /**
+     * Shows the progress of the running computation.
+     *
+     * @param fraction The finished part (0 to 1), or a negative value if unknown.
+     * @param message The text shown in the progress bar.
+     */
+    public void showProgress(double fraction, String message) {
+        progressBar.setIndeterminate(fraction < 0);
+        if (fraction >= 0) {
+            progressBar.setValue((int) Math.round(fraction * progressBar.getMaximum()));
+        }
+        progressBar.setString(message);
+    }
+}
@@ -40,6 +40,9 @@ public class ChessboardEntryView extends JFrame {
     /** Title label for the accepted positions table. */
     private final JLabel acceptedTitle = new JLabel("Accepted queens positions", SwingConstants.CENTER);
     
+    /** Label showing how many solutions remain and which squares are still safe. */
+    private final JLabel hintLabel = new JLabel(" ", SwingConstants.CENTER);
+    
     /**
      * Constructs the ChessboardEntryView and initializes the GUI components.
      * Sets up the window properties such as title, close operation, and location.
@@ -117,6 +120,10 @@ public class ChessboardEntryView extends JFrame {
 
         cp.add(tablePanel, BorderLayout.CENTER); 
         
+        // Hint below the table
+        hintLabel.setBorder(BorderFactory.createEmptyBorder(6,6,0,6));
+        cp.add(hintLabel, BorderLayout.PAGE_END);
+        
         
         // --- Tab Order ---
         positionField.setNextFocusableComponent(confirmButton);
@@ -162,6 +169,15 @@ public class ChessboardEntryView extends JFrame {
         tableModel.addRow(new Object[] {"Queen " + queenNumber, position.toUpperCase()});
     }
     
+    /**
+     * Displays the hint about the remaining solutions and safe squares.
+     *
+     * @param hint The hint text (e.g., "Remaining solutions: 4 | Safe squares: B5 B6 ...").
+     */
+    public void setHint(String hint) {
+        hintLabel.setText(hint);
+    }
+    
     /**
      * Registers an ActionListener for the "Confirm" button.
      *
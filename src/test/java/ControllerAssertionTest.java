@@ -0,0 +1,182 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import controller.ValidationServer;
+import controller.ValidatorCli;
+import model.SolverCache;
+
+/**
+ * Test class for the headless entry points of the controller package.
+ * Runs them in-process and checks their exit codes and outputs.
+ * @author Adam
+ * @version 5.0
+ */
+public class ControllerAssertionTest {
+
+    /** Directory of the server's solver cache. */
+    @TempDir
+    static Path cacheDir;
+
+    /** The server under test, on a free port. */
+    private static ValidationServer server;
+
+    /** Client of the server. */
+    private static HttpClient client;
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = new ValidationServer(0, null, new SolverCache(cacheDir.resolve("solver-cache.bin")));
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Parameterized test for the argument dispatch and exit codes of the command line validator.
+     * The placeholder {@code <dir>} in the arguments stands for a temporary directory.
+     * * @param args The space-separated command line.
+     * @param expectedExit The expected exit code.
+     * @param createdFile A file the command must create, or empty.
+     * @param dir Temporary directory for input and output files.
+     * @throws IOException If the batch input cannot be written.
+     */
+    @ParameterizedTest(name = "ValidatorCli {0} -> exit {1}")
+    @CsvSource(delimiter = '|', value = {
+        "A1 B7 C5 D8 E2 F4 G6 H3                | 0 |",          // Valid solution
+        "a1 b7 c5 d8 e2 f4 g6 h3                | 0 |",          // Lowercase positions
+        "A1 B2 C3 D4 E5 F6 G7 H8                | 1 |",          // Attacking queens
+        "A1 B7 C5 D8 E2 F4 G6                   | 2 |",          // Too few positions
+        "A1 B7 C5 D8 E2 F4 G6 H3 A2             | 2 |",          // Too many positions
+        "A1 B7 C5 D8 E2 F4 G6 Z9                | 2 |",          // Off the board
+        "A1 A1 C5 D8 E2 F4 G6 H3                | 2 |",          // Occupied square
+        "--batch                                | 2 |",          // Missing input
+        "--batch <dir>/boards.txt <dir>/out.txt | 0 | out.txt",  // Batch file to file
+        "--batch <dir>/missing.txt              | 2 |",          // Unreadable input
+        "--catalogue 6                          | 2 |",          // Missing file
+        "--catalogue six <dir>/six.bin          | 2 |",          // Not a size
+        "--catalogue 18 <dir>/big.bin           | 2 |",          // Size out of range
+        "--catalogue 6 <dir>/six.bin            | 0 | six.bin",
+        "--count                                | 2 |",          // Missing size
+        "--count 8 <dir>/a <dir>/b              | 2 |",          // Too many arguments
+        "--count eight                          | 2 |",          // Not a size
+        "--count 40                             | 2 |",          // Size out of range
+        "--count 8                              | 0 |",
+        "--count 9 <dir>/nine.ckpt              | 0 | nine.ckpt" // Resumable count
+    })
+    public void testValidatorCliExitCodes(String args, int expectedExit, String createdFile, @TempDir Path dir) throws IOException {
+        Files.writeString(dir.resolve("boards.txt"), "A1 B7 C5 D8 E2 F4 G6 H3\nA1 B2\n", StandardCharsets.US_ASCII);
+        String[] argv = args.replace("<dir>", dir.toString()).split(" ");
+
+        assertEquals(expectedExit, ValidatorCli.run(argv), "Exit code of [" + args + "] should match");
+        if (createdFile != null) {
+            assertTrue(Files.size(dir.resolve(createdFile)) > 0, createdFile + " should be written");
+        }
+    }
+
+    /**
+     * Parameterized test for the endpoints of the validation server, including their error paths.
+     * * @param request The path and query of the request.
+     * @param expectedStatus The expected HTTP status.
+     * @param expectedBody A text the answer must contain.
+     * @throws Exception If the request fails.
+     */
+    @ParameterizedTest(name = "GET {0} -> {1}")
+    @CsvSource(delimiter = '|', value = {
+        "/validate?board=A1,B7,C5,D8,E2,F4,G6,H3      | 200 | {\"result\":\"VALID\"}",
+        "/validate?board=A1+B2+C3+D4+E5+F6+G7+H8      | 200 | {\"result\":\"INVALID\"}",
+        "/validate?n=4&board=B1,D2,A3,C4              | 200 | VALID",
+        "/validate?board=A1,B7                        | 400 | Wrong number of positions.",
+        "/validate?board=A1,A1,C5,D8,E2,F4,G6,H3      | 400 | Position occupied by other queen",
+        "/validate?board=Z9,B7,C5,D8,E2,F4,G6,H3      | 400 | Position out of range.",
+        "/validate                                    | 400 | Missing parameter: board",
+        "/validate?n=eight&board=A1                   | 400 | Not a number: n",
+        "/validate?n=0&board=A1                       | 400 | n must be between 1",
+        "/validate?n=65&board=A1                      | 400 | n must be between 1 and 64",
+        "/count?n=8                                   | 200 | {\"n\":8,\"count\":92}",
+        "/count?n=8&fundamental=true                  | 200 | {\"n\":8,\"fundamental\":12}",
+        "/count                                       | 400 | Missing parameter: n",
+        "/count?n=17                                  | 400 | n must be between 1 and 16",
+        "/kth?n=8&k=0                                 | 200 | \"queens\":[\"A1\",\"E2\",\"H3\",\"F4\",\"C5\",\"G6\",\"B7\",\"D8\"]",
+        "/kth?n=8&k=92                                | 400 | k must be between 0 and 91",
+        "/kth?n=8&k=-1                                | 400 | k must be between 0 and 91",
+        "/kth?n=8                                     | 400 | Missing parameter: k",
+        "/hint?board=A1,B3                            | 200 | \"exact\":true",
+        "/hint?board=A1,A1                            | 400 | Position occupied by other queen",
+        "/hint                                        | 400 | Missing parameter: board",
+        "/hint?n=702&board=A1                         | 400 | n must be between 1 and 64",
+        "/hint?n=4&board=B1                           | 200 | \"safe\":[\"D2\",\"A3\",\"C4\"]}",
+        "/session?op=new&n=9                          | 400 | n must be between 1 and 8",
+        "/session?op=validate                         | 400 | Missing parameter: id",
+        "/session?op=validate&id=12345                | 404 | Unknown or expired session",
+        "/stats                                       | 200 | \"/validate\":{\"requests\":",
+        "/unknown                                     | 404 |"
+    })
+    public void testServerEndpoints(String request, int expectedStatus, String expectedBody) throws Exception {
+        HttpResponse<String> response = get(request);
+        assertAll("Verifying " + request,
+            () -> assertEquals(expectedStatus, response.statusCode(), "Status should match: " + response.body()),
+            () -> assertTrue(expectedBody == null || response.body().contains(expectedBody), "Body should contain " + expectedBody + ": " + response.body())
+        );
+    }
+
+    /**
+     * Test of a game played through the session endpoint, and of its traces in the statistics.
+     * @throws Exception If a request fails.
+     */
+    @Test
+    public void testServerSession() throws Exception {
+        Matcher id = Pattern.compile("\"id\":(\\d+)").matcher(get("/session?op=new&n=4").body());
+        assertTrue(id.find(), "A new session should have an id");
+        String session = "/session?id=" + id.group(1) + "&op=";
+
+        assertAll("Verifying the moves",
+            () -> assertEquals("{\"result\":\"OK\",\"queens\":1}", get(session + "place&pos=B1").body(), "Free square should be accepted"),
+            () -> assertEquals("{\"result\":\"OCCUPIED\",\"queens\":1}", get(session + "place&pos=B1").body(), "Occupied square should be refused"),
+            () -> assertEquals("{\"result\":\"OUT_OF_RANGE\",\"queens\":1}", get(session + "place&pos=E5").body(), "Square off the 4x4 board should be refused"),
+            () -> assertEquals(400, get(session + "place").statusCode(), "Missing square should be a bad request"),
+            () -> assertEquals(400, get(session + "undo").statusCode(), "Unknown operation should be a bad request")
+        );
+        get(session + "place&pos=D2");
+        get(session + "place&pos=A3");
+        get(session + "place&pos=C4");
+        assertEquals("{\"result\":\"VALID\"}", get(session + "validate").body(), "Completed board should be valid");
+        assertEquals("{\"queens\":0}", get(session + "reset").body(), "Reset should clear the board");
+        assertEquals("{\"result\":\"OK\",\"queens\":1}", get(session + "place&pos=B1").body(), "Reset board should accept the square again");
+
+        String stats = get("/stats").body();
+        assertTrue(stats.matches(".*\"sessions\":[1-9].*"), "Open session should be counted: " + stats);
+        assertTrue(stats.matches(".*\"/session\":\\{\"requests\":\\d+,\"errors\":[1-9].*"), "Bad requests should be counted: " + stats);
+    }
+
+    /**
+     * Sends a GET request to the server.
+     * @param request The path and query.
+     * @return The answer.
+     * @throws Exception If the request fails.
+     */
+    private static HttpResponse<String> get(String request) throws Exception {
+        URI uri = URI.create("http://localhost:" + server.getPort() + request);
+        return client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
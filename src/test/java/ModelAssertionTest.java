@@ -7,6 +7,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.params.ParameterizedTest;
@@ -15,9 +17,35 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.EmptySource;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import controller.BatchValidator;
+
+import model.AsciiSlice;
+import model.BoardChangeEvent;
 import model.ChessboardModel;
+import model.CompletionEngine;
+import model.EventJournal;
+import model.GameSession;
 import model.Position;
 import model.InvalidPositionException;
+import model.JournalReader;
+import model.PlacementResult;
+import model.SessionRegistry;
 /**
  * Test class for ChessboardModel.
  * Covers public methods with parameterized tests for valid, invalid, and boundary scenarios.
@@ -73,6 +101,37 @@ public class ModelAssertionTest {
         );
     }
 
+    /**
+     * Parameterized test for parseSquare on regions of a String and of an ASCII byte buffer.
+     * Both sources must give the same square index, and parse must return interned instances.
+     * * @param line A line holding one position between other text.
+     * @param expectedSquare The expected square index (row * 8 + col), or -1 for invalid positions.
+     */
+    @ParameterizedTest(name = "parseSquare in [{0}] -> {1}")
+    @CsvSource(delimiter = '|', value = {
+        "x A1 y | 0",
+        "x h8 y | 63",
+        "x D4 y | 27",
+        "x A9 y | -1", // Row out of bound
+        "x 1A y | -1", // Wrong order
+        "x I1 y | -1"  // Column out of bound
+    })
+    public void testParseSquareRegions(String line, int expectedSquare) {
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        AsciiSlice slice = new AsciiSlice().wrap(bytes, 0, bytes.length);
+        
+        assertAll("Verifying parseSquare for [" + line + "]",
+            () -> assertEquals(expectedSquare, model.parseSquare(line, 2, 4), "String region should parse"),
+            () -> assertEquals(expectedSquare, model.parseSquare(slice, 2, 4), "Byte region should parse"),
+            () -> {
+                if (expectedSquare >= 0) {
+                    String pos = line.substring(2, 4);
+                    assertSame(model.parse(pos), model.parse(pos.toLowerCase()), "Positions should be interned");
+                }
+            }
+        );
+    }
+
     /**
      * Parameterized test for the parse method with null input.
      * Ensures that passing null throws a NullPointerException.
@@ -86,6 +145,48 @@ public class ModelAssertionTest {
         }, "Parsing null should throw NullPointerException");
     }
 
+    /**
+     * Parameterized test for parse and toNotation on larger boards.
+     * Multi-letter columns and multi-digit rows must round-trip.
+     * * @param inputPosition The string input representing a board position (e.g., "AB12").
+     * @param expectedRow The expected row index.
+     * @param expectedCol The expected column index.
+     */
+    @ParameterizedTest(name = "Parsing large-board position: {0} -> expecting row={1}, col={2}")
+    @CsvSource({
+        "Z26, 25, 25",  // Last single-letter column
+        "AA1, 0, 26",   // First two-letter column
+        "AB12, 11, 27", // Multi-letter and multi-digit
+        "AD30, 29, 29"  // Boundary: Bottom-right corner of a 30x30 board
+    })
+    public void testParseLargeBoard(String inputPosition, int expectedRow, int expectedCol) throws Exception {
+        ChessboardModel large = new ChessboardModel(30);
+        Position result = large.parse(inputPosition);
+        
+        assertAll("Verifying coordinates for " + inputPosition,
+            () -> assertEquals(new Position(expectedRow, expectedCol), result, "Position should match"),
+            () -> assertEquals(inputPosition, result.toNotation(), "Notation should round-trip"),
+            () -> assertDoesNotThrow(() -> large.isValidPlacement(inputPosition), "Position should be placeable")
+        );
+    }
+
+    /**
+     * Parameterized test for rows with a leading zero on a large board.
+     * They must be rejected, so that every square has a single accepted spelling.
+     * * @param inputPosition A position whose row starts with a zero.
+     */
+    @ParameterizedTest(name = "Rejecting leading zero: {0}")
+    @ValueSource(strings = {"A01", "J010", "AB012", "A00", "AD030"})
+    public void testParseRejectsLeadingZeros(String inputPosition) {
+        ChessboardModel large = new ChessboardModel(30);
+        
+        assertAll("Verifying rejection of " + inputPosition,
+            () -> assertEquals(-1, large.parseSquare(inputPosition, 0, inputPosition.length()), "Square should not parse"),
+            () -> assertTrue(large.checkPlacement(inputPosition).isRejected(), "Placement should be refused"),
+            () -> assertTrue(large.parse(inputPosition).row() < 0, "Parsed position should be off the board")
+        );
+    }
+    
     // ========================================================
     // ==== TEST METHOD: isValidPlacement(String pos)      ====
     // ========================================================
@@ -151,6 +252,44 @@ public class ModelAssertionTest {
         }, "Placing on an occupied field (" + targetPos + ") should throw exception");
     }
 
+    // ========================================================
+    // ==== TEST METHOD: checkPlacement(String pos)        ====
+    // ========================================================
+
+    /**
+     * Parameterized test for the non-throwing checkPlacement with a queen already standing on C3.
+     * Every result code must be reported without an exception.
+     * * @param pos The position string to check.
+     * @param expected The expected result code.
+     */
+    @ParameterizedTest(name = "checkPlacement({0}) with queen on C3 -> {1}")
+    @CsvSource({
+        "A2, OK",           // Free and not attacked
+        "H4, OK",           // Free, knight-like distance from other lines
+        "A, BAD_LENGTH",    // Too short
+        "A111, BAD_LENGTH", // Too long
+        "I1, OUT_OF_RANGE", // Column out of bound
+        "1A, OUT_OF_RANGE", // Wrong order
+        "C3, OCCUPIED",     // Same square
+        "c3, OCCUPIED",     // Same square, lowercase
+        "C8, ATTACKED",     // Same column
+        "H3, ATTACKED",     // Same row
+        "A1, ATTACKED",     // Diagonal
+        "E1, ATTACKED"      // Anti-diagonal
+    })
+    public void testCheckPlacement(String pos, PlacementResult expected) {
+        model.placeQueen("C3");
+        
+        assertEquals(expected, model.checkPlacement(pos), "Result code for " + pos + " is incorrect.");
+        if (expected.isRejected()) {
+            assertThrows(InvalidPositionException.class, () -> model.isValidPlacement(pos),
+                "Rejected position " + pos + " should throw in the wrapper");
+        } else {
+            assertDoesNotThrow(() -> model.isValidPlacement(pos),
+                "Accepted position " + pos + " should not throw in the wrapper");
+        }
+    }
+
     // ========================================================
     // ==== TEST METHOD: isSolutionValid()                 ====
     // ========================================================
@@ -169,6 +308,8 @@ public class ModelAssertionTest {
         "'A1, B3', true",             // Knight's move (safe)
         "'A1, C2', true",             // Safe distance
         "'A1, B3, C5, D2, E4', true", // Multiple safe queens
+        "'A1, A1', true",             // Same square twice counts as one queen
+        "'A1, B7, C5, D8, E2, F4, G6, H3', true", // Full 8-queen solution
 
         // --- Negative Scenarios (Invalid) ---
         "'A1, A5', false",            // Attack: Same Column
@@ -178,7 +319,8 @@ public class ModelAssertionTest {
         "'A1, B2', false",            // Attack: Diagonal (Main)
         "'A1, H8', false",            // Attack: Diagonal (Longest)
         "'C1, A3', false",            // Attack: Diagonal (Secondary)
-        "'A1, C2, A4', false"         // Mixed: Two safe, third attacks first (Column)
+        "'A1, C2, A4', false",        // Mixed: Two safe, third attacks first (Column)
+        "'A1, B7, C5, D8, E2, F4, G6, H4', false" // Full board, last queen attacks (Row)
     })
     public void testIsSolutionValidParameterized(String movesSequence, boolean expectedResult) {
         // 1. Parse inputs: split string by comma if it's not empty
@@ -195,5 +337,336 @@ public class ModelAssertionTest {
         assertEquals(expectedResult, model.isSolutionValid(), 
             "Validation result for sequence [" + movesSequence + "] is incorrect.");
     }
-
+    
+    /**
+     * Parameterized test for the completion counter on partial boards.
+     * * @param movesSequence The queens already placed.
+     * @param expectedCompletions The number of 8x8 solutions containing all of them.
+     */
+    @ParameterizedTest(name = "Completions of [{0}] -> Expected: {1}")
+    @CsvSource({
+        "'', 92",                                     // Empty board: every solution
+        "'A1', 4",                                    // Corner of the first row
+        "'D1', 18",                                   // Centre of the first row
+        "'A1, B7, C5, D8, E2, F4, G6', 1",            // One move away from a solution
+        "'A1, B7, C5, D8, E2, F4, G6, H3', 1",        // Complete solution
+        "'C4, F5', 4",                                // Queens in arbitrary rows
+        "'A1, A5', 0",                                // Attacking queens
+        "'A1, B3', 0"                                 // Safe pair that no solution contains
+    })
+    public void testCompletionCount(String movesSequence, long expectedCompletions) {
+        if (!movesSequence.isEmpty()) {
+            for (String move : movesSequence.split(",\\s*")) {
+                model.placeQueen(move);
+            }
+        }
+        
+        assertEquals(expectedCompletions, model.getCompletionCount(),
+            "Completion count for [" + movesSequence + "] is incorrect.");
+        
+        // A square is safe exactly when a queen on it keeps at least one completion
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (model.isOccupied(r, c)) continue;
+                ChessboardModel next = new ChessboardModel();
+                for (String move : movesSequence.split(",\\s*")) {
+                    if (!move.isEmpty()) next.placeQueen(move);
+                }
+                next.placeQueen(r, c);
+                assertEquals(next.getCompletionCount() > 0, model.getSafeSquares().contains(new Position(r, c)),
+                    "Safety of square " + new Position(r, c).toNotation() + " is incorrect.");
+            }
+        }
+    }
+    
+    /**
+     * Test checking that the engine degrades to the unattacked squares when its budget runs out.
+     */
+    @Test
+    public void testCompletionBudgetFallback() {
+        ChessboardModel large = new ChessboardModel(16);
+        large.placeQueen("A1");
+        CompletionEngine.Completion completion = CompletionEngine.analyze(large, 10);
+        
+        assertAll("Verifying inexact completion",
+            () -> assertFalse(completion.exact(), "Result should be marked inexact"),
+            () -> assertEquals(-1, completion.count(), "Count should be unknown"),
+            () -> assertTrue(completion.isSafe(1, 2), "Unattacked square should be listed"),
+            () -> assertFalse(completion.isSafe(1, 1), "Attacked square should not be listed")
+        );
+    }
+    
+    /**
+     * Test checking that a cancelled analysis stops instead of running to its budget.
+     */
+    @Test
+    public void testCompletionCancellation() {
+        AtomicInteger polls = new AtomicInteger();
+        assertThrows(CancellationException.class,
+            () -> CompletionEngine.analyze(new ChessboardModel(16), Long.MAX_VALUE, () -> polls.incrementAndGet() > 1),
+            "Cancelled analysis should stop");
+        assertEquals(2, polls.get(), "The search should stop at the first poll after the cancellation");
+    }
+    
+    /**
+     * Parameterized test checking the queens and attack counts the model reports on every square.
+     * * @param columns The column of the queen in each row, separated by spaces.
+     */
+    @ParameterizedTest(name = "Attack counts of [{0}]")
+    @ValueSource(strings = {
+        "0 4 7 5 2 6 1 3", // Solution
+        "0 1 2 3 4 5 6 7", // All on one diagonal
+        "3 3 3 3 3 3 3 3", // All in one column
+        "0 0 7 7 2 5 1 6"  // Mixed conflicts
+    })
+    public void testAttackCountLayouts(String columns) {
+        int[] queens = Arrays.stream(columns.split(" ")).mapToInt(Integer::parseInt).toArray();
+        for (int r = 0; r < queens.length; r++) {
+            model.placeQueen(r, queens[r]);
+        }
+        
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                String square = new Position(r, c).toNotation();
+                int expected = 0;
+                for (int q = 0; q < 8; q++) {
+                    boolean self = q == r && queens[q] == c;
+                    boolean attacks = q == r || queens[q] == c || q - queens[q] == r - c || q + queens[q] == r + c;
+                    if (attacks && !self) expected++;
+                }
+                assertEquals(queens[r] == c, model.isQueen(r, c), "Queen on " + square + " should match");
+                assertEquals(expected, model.attackCount(r, c), "Model attack count on " + square + " is incorrect");
+            }
+        }
+    }
+    
+    /**
+     * Test checking that the model publishes only actual changes, with the changed squares.
+     */
+    @Test
+    public void testBoardChangeEvents() {
+        List<BoardChangeEvent> events = new ArrayList<>();
+        model.addBoardChangeListener(events::add);
+        
+        model.placeQueen("C4");
+        model.placeQueen("C4");
+        model.placeQueen("D5");
+        model.removeQueen(4, 3);
+        model.removeQueen(4, 3);
+        model.placeQueen("H8");
+        model.clearBoard();
+        
+        assertEquals(5, events.size(), "Repeated placements and removals should not publish events");
+        assertAll("Verifying the published squares",
+            () -> assertArrayEquals(new int[] {3 * 8 + 2}, events.get(0).squares(), "C4 should be reported"),
+            () -> assertEquals(4, events.get(1).row(0), "D5 should be reported in row 4"),
+            () -> assertEquals(3, events.get(2).col(0), "Removed D5 should be reported in column 3"),
+            () -> assertFalse(events.get(3).cleared(), "A placement is not a clear"),
+            () -> assertTrue(events.get(4).cleared(), "Clearing should be flagged"),
+            () -> assertArrayEquals(new int[] {3 * 8 + 2, 7 * 8 + 7}, events.get(4).squares(), "Clearing should list the removed queens")
+        );
+    }
+    
+    /**
+     * Test checking that removing a queen restores the conflict state of its lines.
+     */
+    @Test
+    public void testRemoveQueenRestoresConflicts() {
+        model.placeQueen("A1");
+        model.placeQueen("B2");
+        assertEquals(1, model.getConflictingLines(), "A1 and B2 share one diagonal");
+        
+        model.removeQueen(1, 1);
+        assertAll("Verifying the board after the removal",
+            () -> assertEquals(0, model.getConflictingLines(), "No line should conflict"),
+            () -> assertFalse(model.isOccupied(1, 1), "B2 should be empty"),
+            () -> assertEquals(1, model.getQueenCount(), "One queen should remain")
+        );
+    }
+    
+    /**
+     * Test checking that concurrent placements on one session never share a square or lose a queen.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testGameSessionConcurrentPlacement() throws InterruptedException {
+        GameSession session = new SessionRegistry().create(8);
+        AtomicInteger placed = new AtomicInteger();
+        Thread[] players = new Thread[4];
+        for (int t = 0; t < players.length; t++) {
+            players[t] = new Thread(() -> {
+                for (int sq = 0; sq < 64; sq++) {
+                    if (!session.place(sq / 8, sq % 8).isRejected()) placed.incrementAndGet();
+                }
+            });
+            players[t].start();
+        }
+        for (Thread player : players) player.join();
+        
+        assertAll("Verifying the shared board",
+            () -> assertEquals(64, placed.get(), "Every square should be taken exactly once"),
+            () -> assertEquals(64, session.getQueenCount(), "No queen should be lost"),
+            () -> assertFalse(session.isSolutionValid(), "A full board is not a solution")
+        );
+        session.reset();
+        for (String pos : new String[] {"A1", "B7", "C5", "D8", "E2", "F4", "G6", "H3"}) {
+            Position p = model.parse(pos);
+            assertEquals(PlacementResult.OK, session.place(p.row(), p.col()), pos + " should be accepted");
+        }
+        assertTrue(session.isSolutionValid(), "The known solution should be valid");
+    }
+    
+    /**
+     * Test checking that idle sessions are evicted and used ones are kept.
+     */
+    @Test
+    public void testSessionEviction() {
+        AtomicLong clock = new AtomicLong();
+        SessionRegistry registry = new SessionRegistry(Duration.ofNanos(100), clock::get, null);
+        long idle = registry.create(8).getId();
+        long active = registry.create(8).getId();
+        
+        clock.set(80);
+        assertNotNull(registry.get(active), "Active session should exist");
+        clock.set(150);
+        
+        assertAll("Verifying the eviction",
+            () -> assertEquals(1, registry.evictIdle(), "Only the idle session should be evicted"),
+            () -> assertNull(registry.get(idle), "Idle session should be gone"),
+            () -> assertNotNull(registry.get(active), "Active session should be kept"),
+            () -> assertEquals(1, registry.getEvictedCount(), "Eviction should be counted")
+        );
+    }
+    
+    /**
+     * Test checking that the journal replays models and sessions to their last state.
+     * * @param dir Temporary directory for the journal file.
+     * @throws IOException If the journal cannot be written or read.
+     */
+    @Test
+    public void testJournalReplay(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("moves.journal");
+        long sessionId;
+        try (EventJournal journal = new EventJournal(file)) {
+            journal.record(model, 7);
+            model.placeQueen("A1");
+            model.placeQueen("B3");
+            model.clearBoard();
+            model.placeQueen("C4");
+            model.placeQueen("F5");
+            model.removeQueen(4, 5);
+            model.placeQueen("H8");
+            
+            GameSession session = new SessionRegistry(SessionRegistry.DEFAULT_IDLE_TIMEOUT, System::nanoTime, journal).create(8);
+            sessionId = session.getId();
+            session.place(0, 0);
+            session.place(0, 0);
+            session.place(1, 2);
+        }
+        
+        JournalReader reader = new JournalReader(file);
+        ChessboardModel replayed = reader.replay(7);
+        ChessboardModel replayedSession = reader.replay(sessionId);
+        JournalReader.JournalStats stats = reader.aggregate();
+        assertAll("Verifying the replay",
+            () -> assertEquals(model.getBoard(), replayed.getBoard(), "Replayed board should match the model"),
+            () -> assertTrue(replayedSession.isOccupied(0, 0) && replayedSession.isOccupied(1, 2), "Session queens should be replayed"),
+            () -> assertEquals(2, replayedSession.getQueenCount(), "The rejected placement should not be journaled"),
+            () -> assertNull(reader.replay(8), "Unknown sessions have no board"),
+            () -> assertEquals(9, stats.events(), "Every change should be journaled"),
+            () -> assertEquals(1, stats.removes(), "One queen was removed"),
+            () -> assertEquals(1, stats.clears(), "One board was cleared"),
+            () -> assertEquals(2, stats.sessions(), "Two sessions were recorded")
+        );
+    }
+    
+    /**
+     * Parameterized test for the chunked reader of the batch validator.
+     * The input is delivered in reads of at most the given size, so lines cross chunk boundaries.
+     * * @param input The submission file, with escaped line breaks.
+     * @param chunk The maximum number of bytes returned by one read.
+     * @param expected The result lines without the summary, joined by ';'.
+     * @throws IOException If the validation fails.
+     */
+    @ParameterizedTest(name = "Batch of [{0}] read in chunks of {1} -> {2}")
+    @CsvSource(delimiter = '|', value = {
+        "A1 B7 C5 D8 E2 F4 G6 H3\\nA1 B2 C3 D4 E5 F6 G7 H8\\n | 5 | 1 VALID;2 INVALID",     // Lines crossing chunk boundaries
+        "A1 B7 C5 D8 E2 F4 G6 H3\\r\\nA1 B2 C3 D4 E5 F6 G7 H8\\r\\n | 3 | 1 VALID;2 INVALID", // CRLF line ends
+        "A1 B7 C5 D8 E2 F4 G6 H3\\nA1,B7,C5,D8,E2,F4,G6,H3 | 7 | 1 VALID;2 VALID",          // Final line without a newline
+        "\\n\\n  \\nA1 B7 C5 D8 E2 F4 G6 H3\\n\\n | 1 | 4 VALID",                            // Empty and blank lines
+        "A1 B7\\nA1 A1 C5 D8 E2 F4 G6 H3\\nZ9 B7 C5 D8 E2 F4 G6 H3 | 4096 | 1 ERROR Wrong number of positions.;2 ERROR Position occupied by other queen;3 ERROR Position out of range."
+    })
+    public void testBatchValidatorChunks(String input, int chunk, String expected) throws IOException {
+        String text = input.replace("\\r", "\r").replace("\\n", "\n");
+        assertEquals(expected, validateBatch(text, chunk), "Result lines should match");
+    }
+    
+    /**
+     * Test for a line longer than the read buffer, which makes the batch validator grow it.
+     * @throws IOException If the validation fails.
+     */
+    @Test
+    public void testBatchValidatorLongLine() throws IOException {
+        String longLine = "A1 " + " ".repeat(200_000) + "B7 C5 D8 E2 F4 G6 H3";
+        assertEquals("1 INVALID;2 VALID;3 VALID", validateBatch("A1 B2 C3 D4 E5 F6 G7 H8\n" + longLine + "\n" + longLine, 8192),
+                "Long lines should be validated as a whole");
+    }
+    
+    /**
+     * Test that a batch on standard input and output leaves both streams open.
+     */
+    @Test
+    public void testBatchValidatorKeepsStandardStreams() {
+        InputStream oldIn = System.in;
+        PrintStream oldOut = System.out;
+        boolean[] closed = new boolean[2];
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try {
+            System.setIn(new ByteArrayInputStream("A1 B7 C5 D8 E2 F4 G6 H3\n".getBytes(StandardCharsets.US_ASCII)) {
+                @Override
+                public void close() {
+                    closed[0] = true;
+                }
+            });
+            System.setOut(new PrintStream(captured) {
+                @Override
+                public void close() {
+                    closed[1] = true;
+                }
+            });
+            assertEquals(0, BatchValidator.run("-", "-"), "Batch should succeed");
+            System.out.println("after");
+        } finally {
+            System.setIn(oldIn);
+            System.setOut(oldOut);
+        }
+        String out = captured.toString(StandardCharsets.US_ASCII);
+        assertAll("Verifying the standard streams",
+            () -> assertFalse(closed[0], "Standard input should stay open"),
+            () -> assertFalse(closed[1], "Standard output should stay open"),
+            () -> assertTrue(out.startsWith("1 VALID"), "Results should be written"),
+            () -> assertTrue(out.endsWith("after" + System.lineSeparator()), "Later output should not be lost")
+        );
+    }
+    
+    /**
+     * Runs the batch validator over a text delivered in small reads.
+     * @param text The submission file.
+     * @param chunk The maximum number of bytes returned by one read.
+     * @return The result lines without the summary, joined by ';'.
+     * @throws IOException If the validation fails.
+     */
+    private static String validateBatch(String text, int chunk) throws IOException {
+        InputStream in = new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunk));
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BatchValidator(8, true).validate(in, out);
+        return out.toString(StandardCharsets.US_ASCII).lines()
+                .filter(line -> !line.startsWith("#"))
+                .collect(Collectors.joining(";"));
+    }
 }
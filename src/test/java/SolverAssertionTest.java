@@ -0,0 +1,626 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import model.ChessboardModel;
+import model.CountCheckpoint;
+import model.DancingLinksSolver;
+import model.MinConflictsSolver;
+import model.NQueensSolver;
+import model.ParallelSolver;
+import model.Position;
+import model.SolutionCatalogue;
+import model.SolutionIndex;
+import model.SolutionRanker;
+import model.SolverCache;
+import model.Solutions;
+import model.SymmetrySolver;
+
+/**
+ * Test class for the N Queens solver engines.
+ * Compares solution counts against the known sequence and cross-checks enumerated boards with the model.
+ * @author Adam
+ * @version 5.0
+ */
+public class SolverAssertionTest {
+    
+    /**
+     * Parameterized test for the bitmask counter against the known number of solutions.
+     * * @param n The board dimension.
+     * @param expected The number of solutions for that dimension.
+     */
+    @ParameterizedTest(name = "Counting solutions for N={0} -> expecting {1}")
+    @CsvSource({
+        "1, 1",
+        "2, 0",
+        "3, 0",
+        "4, 2",
+        "5, 10",
+        "6, 4",
+        "7, 40",
+        "8, 92",
+        "10, 724",
+        "12, 14200"
+    })
+    public void testCount(int n, long expected) {
+        assertEquals(expected, NQueensSolver.count(n), "Solution count for N=" + n + " is incorrect.");
+    }
+    
+    /**
+     * Parameterized test for sizes the solver does not support.
+     * * @param n The invalid board dimension.
+     */
+    @ParameterizedTest(name = "Rejecting N={0}")
+    @ValueSource(ints = {0, -1, 32})
+    public void testCountInvalidSize(int n) {
+        assertThrows(IllegalArgumentException.class, () -> NQueensSolver.count(n),
+            "N=" + n + " should throw IllegalArgumentException");
+    }
+    
+    /**
+     * Enumerates all 8x8 solutions and replays each one through the model.
+     * Every enumerated board must be accepted by isSolutionValid and boards must come in lexicographic order.
+     */
+    @Test
+    public void testEnumeratedSolutionsAreValid() {
+        ArrayList<int[]> solutions = new ArrayList<>();
+        NQueensSolver.forEachSolution(8, cols -> solutions.add(cols.clone()));
+        
+        assertEquals(92, solutions.size(), "Enumeration should report every solution");
+        for (int i = 0; i < solutions.size(); i++) {
+            ChessboardModel model = new ChessboardModel();
+            int[] cols = solutions.get(i);
+            for (int r = 0; r < cols.length; r++) {
+                model.placeQueen(new Position(r, cols[r]).toNotation());
+            }
+            assertTrue(model.isSolutionValid(), "Solution " + Arrays.toString(cols) + " should be valid");
+            if (i > 0) {
+                assertTrue(Arrays.compare(solutions.get(i - 1), cols) < 0, "Solutions should be in lexicographic order");
+            }
+        }
+    }
+    
+    /**
+     * Parameterized test checking that the fork/join counter agrees with the sequential one
+     * for different pool sizes and split depths, including depths deeper than the board.
+     * * @param n The board dimension.
+     * @param parallelism The number of worker threads.
+     * @param splitDepth The number of rows fixed per work unit.
+     */
+    @ParameterizedTest(name = "Parallel count N={0}, threads={1}, depth={2}")
+    @CsvSource({
+        "1, 1, 1",
+        "4, 2, 8",
+        "8, 4, 2",
+        "9, 3, 3",
+        "11, 4, 4",
+        "12, 2, 1"
+    })
+    public void testParallelCount(int n, int parallelism, int splitDepth) {
+        ParallelSolver.ParallelCount result = new ParallelSolver(parallelism, splitDepth).count(n);
+        
+        assertAll("Verifying parallel count for N=" + n,
+            () -> assertEquals(NQueensSolver.count(n), result.solutions(), "Parallel count should match sequential count"),
+            () -> assertEquals(parallelism, result.parallelism(), "Reported parallelism should match"),
+            () -> assertTrue(result.tasks() > 0, "Search should be split into work units")
+        );
+    }
+    
+    /**
+     * Parameterized test for the symmetry-reduced counter.
+     * Checks both the total and the fundamental number of solutions against the known sequences.
+     * * @param n The board dimension.
+     * @param total The expected number of all solutions.
+     * @param fundamental The expected number of solutions distinct under rotations and reflections.
+     */
+    @ParameterizedTest(name = "Symmetry count N={0} -> expecting total={1}, fundamental={2}")
+    @CsvSource({
+        "1, 1, 1",
+        "2, 0, 0",
+        "4, 2, 1",
+        "5, 10, 2",
+        "6, 4, 1",
+        "7, 40, 6",
+        "8, 92, 12",
+        "9, 352, 46",
+        "10, 724, 92",
+        "12, 14200, 1787"
+    })
+    public void testSymmetryCount(int n, long total, long fundamental) {
+        SymmetrySolver.SymmetryCount result = SymmetrySolver.count(n);
+        
+        assertAll("Verifying symmetry count for N=" + n,
+            () -> assertEquals(total, result.total(), "Total count should match"),
+            () -> assertEquals(fundamental, result.fundamental(), "Fundamental count should match")
+        );
+    }
+    
+    /**
+     * Replays every 8x8 solution through the model and checks the index classification.
+     * Ids must follow the enumeration order and every symmetry class must contain exactly classSize boards.
+     */
+    @Test
+    public void testSolutionIndexClassifiesAllSolutions() {
+        int[] classMembers = new int[12];
+        int[] classSizes = new int[12];
+        int[] next = {0};
+        
+        NQueensSolver.forEachSolution(8, cols -> {
+            ChessboardModel model = new ChessboardModel();
+            for (int r = 0; r < cols.length; r++) {
+                model.placeQueen(r, cols[r]);
+            }
+            SolutionIndex.SolutionInfo info = model.getSolutionInfo();
+            
+            assertNotNull(info, "Solution " + Arrays.toString(cols) + " should be indexed");
+            assertEquals(next[0]++, info.id(), "Ids should follow lexicographic order");
+            classMembers[info.canonicalId()]++;
+            classSizes[info.canonicalId()] = info.classSize();
+        });
+        
+        assertArrayEquals(classSizes, classMembers, "Every class should contain exactly classSize solutions");
+    }
+    
+    /**
+     * Parameterized test checking that full but invalid boards are not found in the index.
+     * * @param movesSequence The 8 positions to place.
+     */
+    @ParameterizedTest(name = "Full invalid board: [{0}]")
+    @ValueSource(strings = {
+        "A1, B1, C1, D1, E1, F1, G1, H1", // All in one row
+        "A1, B2, C3, D4, E5, F6, G7, H8", // All on one diagonal
+        "A1, B7, C5, D8, E2, F4, G6, H4"  // Almost a solution
+    })
+    public void testSolutionIndexRejectsInvalidBoards(String movesSequence) {
+        ChessboardModel model = new ChessboardModel();
+        for (String move : movesSequence.split(",\\s*")) {
+            model.placeQueen(move);
+        }
+        
+        assertAll("Verifying rejection of [" + movesSequence + "]",
+            () -> assertFalse(model.isSolutionValid(), "Board should not be a valid solution"),
+            () -> assertNull(model.getSolutionInfo(), "Board should not be found in the index")
+        );
+    }
+    
+    /**
+     * Parameterized test for the min-conflicts solver.
+     * The result must be a valid placement and equal seeds must give equal placements.
+     * * @param n The board dimension.
+     */
+    @ParameterizedTest(name = "Min-conflicts solution for N={0}")
+    @ValueSource(ints = {1, 4, 5, 8, 10, 50, 1000, 100_000})
+    public void testMinConflictsSolver(int n) {
+        int[] queens = new MinConflictsSolver(42L).solve(n);
+        
+        assertAll("Verifying min-conflicts solution for N=" + n,
+            () -> assertEquals(n, queens.length, "There should be one queen per row"),
+            () -> assertTrue(MinConflictsSolver.isSolution(queens), "Placement should be a valid solution"),
+            () -> assertArrayEquals(queens, new MinConflictsSolver(42L).solve(n), "Equal seeds should give equal solutions")
+        );
+    }
+    
+    /**
+     * Test for the O(N) verifier on placements that are not solutions.
+     */
+    @Test
+    public void testMinConflictsVerifierRejectsAttacks() {
+        assertAll("Verifying rejection of attacking placements",
+            () -> assertFalse(MinConflictsSolver.isSolution(new int[] {0, 1, 2, 3}), "Diagonal should be rejected"),
+            () -> assertFalse(MinConflictsSolver.isSolution(new int[] {1, 3, 0, 0}), "Shared column should be rejected"),
+            () -> assertFalse(MinConflictsSolver.isSolution(new int[] {1, 3, 0, 4}), "Column off the board should be rejected"),
+            () -> assertTrue(MinConflictsSolver.isSolution(new int[] {1, 3, 0, 2}), "Solution should be accepted"),
+            () -> assertThrows(IllegalArgumentException.class, () -> new MinConflictsSolver(1L).solve(3), "N=3 has no solution")
+        );
+    }
+    
+    /**
+     * Parameterized test for the solution stream.
+     * Sequential and parallel streams must both yield every solution exactly once.
+     * * @param n The board dimension.
+     */
+    @ParameterizedTest(name = "Streaming solutions for N={0}")
+    @ValueSource(ints = {1, 2, 4, 6, 8, 10, 12})
+    public void testSolutionStreamCount(int n) {
+        long expected = NQueensSolver.count(n);
+        
+        assertAll("Verifying solution stream for N=" + n,
+            () -> assertEquals(expected, Solutions.stream(n).count(), "Sequential stream should yield every solution"),
+            () -> assertEquals(expected, Solutions.stream(n).parallel().count(), "Parallel stream should yield every solution"),
+            () -> assertEquals(expected, Solutions.stream(n).parallel().map(Arrays::toString).distinct().count(), "Solutions should be distinct")
+        );
+    }
+    
+    /**
+     * Test checking that the solution stream keeps the lexicographic order, also when split,
+     * and that its elements can be placed on the model.
+     */
+    @Test
+    public void testSolutionStreamOrder() {
+        ArrayList<String> expected = new ArrayList<>();
+        NQueensSolver.forEachSolution(8, cols -> expected.add(Arrays.toString(cols)));
+        
+        assertAll("Verifying solution stream order",
+            () -> assertEquals(expected, Solutions.stream(8).map(Arrays::toString).toList(), "Sequential order should be lexicographic"),
+            () -> assertEquals(expected, Solutions.stream(8).parallel().map(Arrays::toString).toList(), "Parallel order should be lexicographic"),
+            () -> assertTrue(Solutions.stream(8).map(Solutions::toModel).allMatch(ChessboardModel::isSolutionValid), "Every solution should be valid on the model")
+        );
+    }
+    
+    /**
+     * Test checking that unranking visits the solutions in enumeration order and that ranking inverts it,
+     * also for the board model and with a cache too small to hold every subtree.
+     */
+    @Test
+    public void testSolutionRankerMatchesEnumeration() {
+        SolutionRanker ranker = new SolutionRanker(8, 4);
+        long[] next = {0};
+        
+        NQueensSolver.forEachSolution(8, cols -> {
+            long k = next[0]++;
+            assertArrayEquals(cols, ranker.unrank(k), "Solution #" + k + " should match the enumeration");
+            assertEquals(k, ranker.rank(cols), "Rank should invert unrank");
+            assertEquals(k, ranker.rank(Solutions.toModel(cols)), "Rank of the board should match");
+        });
+        
+        assertAll("Verifying ranker bounds",
+            () -> assertEquals(92, ranker.getCount(), "Count should match"),
+            () -> assertTrue(ranker.getCacheSize() <= 4, "Cache should respect its capacity"),
+            () -> assertThrows(IndexOutOfBoundsException.class, () -> ranker.unrank(92), "Index past the end should be rejected"),
+            () -> assertThrows(IllegalArgumentException.class, () -> ranker.rank(new int[] {0, 1, 2, 3, 4, 5, 6, 7}), "Non-solution should be rejected")
+        );
+    }
+    
+    /**
+     * Parameterized test for random access into larger solution sets.
+     * * @param n The board dimension.
+     * @param k The index of the solution.
+     */
+    @ParameterizedTest(name = "Solution #{1} of N={0}")
+    @CsvSource({
+        "10, 0",
+        "10, 723",
+        "12, 7100",
+        "13, 40000",
+        "14, 365595"
+    })
+    public void testSolutionRankerRoundTrip(int n, long k) {
+        SolutionRanker ranker = new SolutionRanker(n);
+        int[] queens = ranker.unrank(k);
+        
+        assertAll("Verifying solution #" + k + " of N=" + n,
+            () -> assertTrue(MinConflictsSolver.isSolution(queens), "Unranked board should be a solution"),
+            () -> assertEquals(k, ranker.rank(queens), "Rank should invert unrank")
+        );
+    }
+    
+    /**
+     * Parameterized test for the Dancing Links solver on empty boards.
+     * * @param n The board dimension.
+     */
+    @ParameterizedTest(name = "Exact cover count for N={0}")
+    @ValueSource(ints = {1, 2, 3, 4, 5, 6, 8, 10})
+    public void testDancingLinksCount(int n) {
+        assertEquals(NQueensSolver.count(n), new DancingLinksSolver(new ChessboardModel(n)).count(),
+            "Exact cover count should match the bitmask count");
+    }
+    
+    /**
+     * Parameterized test for the Dancing Links solver with pre-placed queens and blocked squares.
+     * * @param placed The queens already on the board.
+     * @param blocked The squares no queen may use.
+     * @param expected The number of completions.
+     */
+    @ParameterizedTest(name = "Exact cover of [{0}] without [{1}] -> expecting {2}")
+    @CsvSource({
+        "'', '', 92",
+        "'A1', '', 4",
+        "'C4, F5', '', 4",
+        "'', 'A1', 88",
+        "'', 'A1, H1', 84",
+        "'A1', 'A1', 0",
+        "'A1, A5', '', 0"
+    })
+    public void testDancingLinksConstraints(String placed, String blocked, long expected) {
+        ChessboardModel model = new ChessboardModel();
+        for (String move : placed.split(",\\s*")) {
+            if (!move.isEmpty()) model.placeQueen(move);
+        }
+        List<Position> forbidden = Arrays.stream(blocked.split(",\\s*"))
+            .filter(s -> !s.isEmpty())
+            .map(model::parse)
+            .toList();
+        DancingLinksSolver solver = new DancingLinksSolver(model, forbidden);
+        
+        long found = solver.forEachSolution(queens -> {
+            assertTrue(MinConflictsSolver.isSolution(queens), "Completion should be a solution");
+            for (Position p : forbidden) {
+                assertNotEquals(p.col(), queens[p.row()], "Completion should avoid blocked squares");
+            }
+        });
+        
+        assertAll("Verifying exact cover of [" + placed + "] without [" + blocked + "]",
+            () -> assertEquals(expected, found, "Number of completions should match"),
+            () -> assertEquals(expected, solver.count(), "Repeated search should restore the matrix")
+        );
+    }
+    
+    /**
+     * Test checking that a cancelled search stops with a CancellationException.
+     */
+    @Test
+    public void testDancingLinksCancel() {
+        DancingLinksSolver solver = new DancingLinksSolver(new ChessboardModel(12));
+        long[] seen = {0};
+        
+        assertThrows(CancellationException.class, () -> solver.forEachSolution(queens -> {
+            if (++seen[0] == 10) solver.cancel();
+        }), "Cancelled search should throw");
+        assertEquals(10, seen[0], "Search should stop right after the cancellation");
+    }
+    
+    /**
+     * Test for the progress reporting and cancellation of the parallel count.
+     */
+    @Test
+    public void testParallelCountProgressAndCancel() {
+        long[] sum = {0};
+        int[] calls = {0};
+        ParallelSolver solver = new ParallelSolver(1, 2);
+        
+        long solutions = solver.count(10, (unit, found, completed, total) -> {
+            sum[0] += found;
+            calls[0]++;
+            assertEquals(calls[0], completed, "Completed units should be counted up");
+        }).solutions();
+        
+        assertAll("Verifying progress reports",
+            () -> assertEquals(724, solutions, "Count should match"),
+            () -> assertEquals(724, sum[0], "Reported unit counts should add up to the total")
+        );
+        
+        assertThrows(CancellationException.class, () -> solver.count(10, new ParallelSolver.ProgressListener() {
+            @Override
+            public void unitCompleted(int unit, long found, int completed, int total) {
+                calls[0] = -1;
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        }), "Cancelled count should throw");
+        assertNotEquals(-1, calls[0], "No unit should run after cancellation");
+    }
+    
+    /**
+     * Test resuming a cancelled parallel count from its checkpoint without counting a unit twice.
+     * * @param dir Temporary directory for the checkpoint file.
+     * @throws IOException If the checkpoint cannot be written or read.
+     */
+    @Test
+    public void testParallelCountCheckpoint(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("count.ckpt");
+        ParallelSolver solver = new ParallelSolver(1, 2);
+        int[] completed = {0};
+        
+        assertThrows(CancellationException.class, () -> solver.count(12, new ParallelSolver.ProgressListener() {
+            @Override
+            public void unitCompleted(int unit, long found, int done, int total) {
+                completed[0] = done;
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                return completed[0] == 5;
+            }
+        }, new CountCheckpoint(file, Duration.ofHours(1))), "Cancelled count should throw");
+        
+        CountCheckpoint checkpoint = new CountCheckpoint(file, Duration.ZERO);
+        long[] recounted = {0};
+        ParallelSolver.ParallelCount result = solver.count(12, (unit, found, done, total) -> recounted[0]++, checkpoint);
+        assertAll("Verifying the resumed count",
+            () -> assertEquals(14200, result.solutions(), "Resumed count should match"),
+            () -> assertEquals(5, checkpoint.getRestoredUnits(), "Units of the cancelled run should be restored"),
+            () -> assertEquals(result.tasks(), recounted[0], "Every unit should be reported once"),
+            () -> assertEquals(result.tasks(), checkpoint.getCompletedUnits(), "Every unit should be recorded"),
+            () -> assertEquals(5, Arrays.stream(result.taskNanos()).filter(t -> t == 0).count(), "Restored units should not run")
+        );
+        
+        assertEquals(14200, solver.count(12, null, new CountCheckpoint(file)).solutions(), "Finished checkpoint should answer the count");
+        assertThrows(IOException.class, () -> solver.count(11, null, new CountCheckpoint(file)), "Checkpoint of another count should be rejected");
+    }
+    
+    /**
+     * Test that a checkpoint which cannot be saved fails a finished count, but does not hide the
+     * cancellation of a cancelled one.
+     * * @param dir Temporary directory; the checkpoint goes to a missing subdirectory of it.
+     */
+    @Test
+    public void testParallelCountCheckpointSaveFailure(@TempDir Path dir) {
+        Path file = dir.resolve("missing").resolve("count.ckpt");
+        ParallelSolver solver = new ParallelSolver(1, 2);
+        
+        CancellationException cancelled = assertThrows(CancellationException.class, () -> solver.count(10, new ParallelSolver.ProgressListener() {
+            @Override
+            public void unitCompleted(int unit, long found, int done, int total) {
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        }, new CountCheckpoint(file, Duration.ofHours(1))), "Cancellation should reach the caller");
+        assertAll("Verifying the save failures",
+            () -> assertEquals(1, cancelled.getSuppressed().length, "Failed save should be attached to the cancellation"),
+            () -> assertInstanceOf(IOException.class, cancelled.getSuppressed()[0], "Attached failure should be the save"),
+            () -> assertThrows(IOException.class, () -> solver.count(10, null, new CountCheckpoint(file, Duration.ofHours(1))), "Failed save of a finished count should be thrown")
+        );
+    }
+    
+    /**
+     * Test for finding the first completion with the Dancing Links solver.
+     */
+    @Test
+    public void testDancingLinksSolve() {
+        ChessboardModel model = new ChessboardModel();
+        model.placeQueen("C4");
+        int[] queens = new DancingLinksSolver(model).solve();
+        
+        model.placeQueen("C5");
+        
+        assertAll("Verifying first completion",
+            () -> assertNotNull(queens, "Board should be completable"),
+            () -> assertTrue(MinConflictsSolver.isSolution(queens), "Completion should be a solution"),
+            () -> assertEquals(2, queens[3], "Completion should keep the placed queen"),
+            () -> assertNull(new DancingLinksSolver(model).solve(), "Attacking queens cannot be completed")
+        );
+    }
+    
+    /**
+     * Parameterized test checking that a catalogue stores every solution in lexicographic order
+     * and indexes the first row.
+     * * @param n The board dimension.
+     * @param dir Temporary directory for the catalogue file.
+     * @throws IOException If the catalogue cannot be written or read.
+     */
+    @ParameterizedTest(name = "Catalogue for N={0}")
+    @ValueSource(ints = {1, 4, 8, 11})
+    public void testSolutionCatalogue(int n, @TempDir Path dir) throws IOException {
+        Path file = dir.resolve("solutions-" + n + ".bin");
+        assertEquals(NQueensSolver.count(n), SolutionCatalogue.write(n, file), "Written count for N=" + n + " is incorrect.");
+        
+        SolutionCatalogue catalogue = SolutionCatalogue.open(file);
+        SolutionRanker ranker = new SolutionRanker(n);
+        assertEquals(ranker.getCount(), catalogue.getCount(), "Stored count for N=" + n + " is incorrect.");
+        long[] index = {0};
+        catalogue.forEach(queens -> {
+            assertArrayEquals(ranker.unrank(index[0]), queens, "Solution #" + index[0] + " for N=" + n + " is incorrect.");
+            index[0]++;
+        });
+        for (int c = 0; c < n; c++) {
+            long first = catalogue.firstIndexOfColumn(c), end = catalogue.firstIndexOfColumn(c + 1);
+            if (first < end) {
+                assertEquals(c, catalogue.get(first)[0], "First solution of column " + c + " is misplaced.");
+                assertEquals(c, catalogue.get(end - 1)[0], "Last solution of column " + c + " is misplaced.");
+            }
+        }
+        assertTrue(catalogue.getModel(catalogue.getCount() - 1).isSolutionValid(), "Stored boards should be solutions.");
+        assertThrows(IndexOutOfBoundsException.class, () -> catalogue.get(catalogue.getCount()));
+    }
+    
+    /**
+     * Tests that cached results survive a restart, stay within the capacity and are dropped for other solver versions.
+     * * @param dir Temporary directory for the cache file.
+     * @throws IOException If the cache file cannot be written or read.
+     */
+    @Test
+    public void testSolverCache(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("cache.bin");
+        try (SolverCache cache = new SolverCache(file, 3)) {
+            assertEquals(14200, cache.count(12), "Cached count for N=12 is incorrect.");
+            assertEquals(14200, cache.count(12), "Repeated count for N=12 is incorrect.");
+            assertEquals(1, cache.getHits(), "Repeated count should be a hit.");
+            assertEquals(92, cache.fundamentalCount(10), "Fundamental count for N=10 is incorrect.");
+            assertEquals(724, cache.getIfPresent(SolverCache.Key.total(10)), "Total count should be cached with the fundamental one.");
+            
+            // A queen in the corner of the first row: column 0 taken, next row attacked on column 1
+            assertEquals(4, cache.subtreeCount(8, 1, 2, 0), "Completions of a corner queen are incorrect.");
+            assertEquals(3, cache.size(), "Cache should not exceed its capacity.");
+            assertEquals(-1, cache.getIfPresent(SolverCache.Key.total(12)), "Least recently used result should be evicted.");
+        }
+        
+        SolverCache reloaded = new SolverCache(file, 3);
+        assertEquals(724, reloaded.getIfPresent(SolverCache.Key.total(10)), "Saved count should be loaded.");
+        assertEquals(3, reloaded.size(), "Every saved result should be loaded.");
+        
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[4]++;
+        Files.write(file, bytes);
+        assertEquals(0, new SolverCache(file).size(), "Results of another solver version should be ignored.");
+        Files.write(file, Arrays.copyOf(bytes, 20));
+        assertEquals(0, new SolverCache(file).size(), "A truncated cache file should be ignored.");
+    }
+    
+    /**
+     * Tests that concurrent callers of a missing result share one computation, and that a ranker
+     * keeps its subtree counts in the cache it is given.
+     * @throws Exception If a caller fails.
+     */
+    @Test
+    public void testSolverCacheComputesOnce() throws Exception {
+        SolverCache cache = new SolverCache(null);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(callers.submit(() -> cache.computeIfAbsent(SolverCache.Key.total(30), () -> {
+                    computations.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Long> result : results) {
+                assertEquals(42, result.get(), "Every caller should get the result.");
+            }
+        } finally {
+            callers.shutdown();
+        }
+        assertEquals(1, computations.get(), "The result should be computed once.");
+        
+        SolutionRanker ranker = new SolutionRanker(8, cache);
+        assertEquals(92, ranker.getCount(), "Ranker count for N=8 is incorrect.");
+        assertTrue(cache.size() > 1, "Subtree counts should be kept in the shared cache.");
+    }
+    
+    /**
+     * Tests that a failed save removes its temporary file and keeps the results for the next save.
+     * * @param dir Temporary directory for the cache file.
+     * @throws IOException If the cache file cannot be written or read.
+     */
+    @Test
+    public void testSolverCacheFailedSave(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("cache.bin");
+        // A non-empty directory in place of the file makes the final move fail
+        Files.createDirectories(file.resolve("blocker"));
+        SolverCache cache = new SolverCache(file);
+        cache.put(SolverCache.Key.total(8), 92);
+        
+        assertThrows(IOException.class, cache::save, "Moving over a directory should fail.");
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.toList(), "The temporary file should be deleted.");
+        }
+        
+        Files.delete(file.resolve("blocker"));
+        Files.delete(file);
+        cache.save();
+        assertEquals(92, new SolverCache(file).getIfPresent(SolverCache.Key.total(8)), "The result should be saved on the next attempt.");
+    }
+}
@@ -0,0 +1,103 @@
+package controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the progress throttling and cancellation of {@link BackgroundJob}.
+ * Lives in the controller package because the job is package-private.
+ * @author Adam
+ * @version 5.0
+ */
+public class BackgroundJobAssertionTest {
+
+    /**
+     * Test that a burst of reports is throttled to the frame rate and shown in order.
+     * @throws Exception If the job fails or the EDT cannot be reached.
+     */
+    @Test
+    public void testReportThrottling() throws Exception {
+        List<BackgroundJob.Progress> shown = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        long[] elapsed = new long[1];
+
+        BackgroundJob<Integer> job = new BackgroundJob<>(j -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < 100_000; i++) {
+                j.report(i / 100_000.0, String.valueOf(i));
+            }
+            elapsed[0] = System.nanoTime() - start;
+            return 42;
+        }, shown::add, result -> finished.countDown(), ex -> fail("Job should not fail: " + ex));
+        job.execute();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS), "Job should finish");
+        assertEquals(42, job.get(), "Result should be handed back");
+        // Swing delivers published chunks on a timer of its own; give it a few frames
+        Thread.sleep(200);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        long frames = elapsed[0] * BackgroundJob.MAX_FPS / 1_000_000_000L;
+        assertAll("Verifying the throttling",
+            () -> assertFalse(shown.isEmpty(), "The first report should be shown"),
+            () -> assertTrue(shown.stream().mapToInt(p -> Integer.parseInt(p.message())).reduce(-1, (a, b) -> a < b ? b : Integer.MAX_VALUE) < Integer.MAX_VALUE, "Updates should be shown in order"),
+            () -> assertTrue(shown.size() <= frames + 1, shown.size() + " updates shown for " + (frames + 1) + " frames")
+        );
+    }
+
+    /**
+     * Test that a stopped job runs its stop hook, reports the cancellation and never its result,
+     * and that a hook registered after the stop runs at once.
+     * @throws Exception If the EDT cannot be reached.
+     */
+    @Test
+    public void testStopCancelsJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicInteger hookRuns = new AtomicInteger();
+        Exception[] failure = new Exception[1];
+
+        BackgroundJob<String> job = new BackgroundJob<>(j -> {
+            started.countDown();
+            // Stands for an engine that ignores interrupts and only stops through its own cancel method
+            while (release.getCount() > 0) {
+                release.await(10, TimeUnit.MILLISECONDS);
+            }
+            return "late";
+        }, p -> { }, result -> fail("A stopped job should not deliver " + result), ex -> {
+            failure[0] = ex;
+            failed.countDown();
+        });
+        job.whenStopped(() -> {
+            hookRuns.incrementAndGet();
+            release.countDown();
+        });
+        job.execute();
+
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Job should start");
+        job.stop();
+        assertTrue(failed.await(5, TimeUnit.SECONDS), "Cancellation should be reported");
+        assertAll("Verifying the cancellation",
+            () -> assertInstanceOf(CancellationException.class, failure[0], "Failure should be the cancellation"),
+            () -> assertEquals(1, hookRuns.get(), "Stop hook should run once"),
+            () -> assertTrue(job.isCancelled(), "Job should be cancelled")
+        );
+
+        BackgroundJob<String> early = new BackgroundJob<>(j -> "never", p -> { }, r -> { }, ex -> { });
+        early.stop();
+        AtomicInteger lateHook = new AtomicInteger();
+        early.whenStopped(lateHook::incrementAndGet);
+        assertEquals(1, lateHook.get(), "A hook registered after the stop should run at once");
+    }
+}
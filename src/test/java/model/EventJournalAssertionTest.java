@@ -0,0 +1,262 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the failure handling of {@link EventJournal}, on a channel that fails on demand.
+ * Lives in the model package because the journal takes an open channel only there.
+ * @author Adam
+ * @version 5.0
+ */
+public class EventJournalAssertionTest {
+
+    /** Time between two group commits when a test wants no background commit. */
+    private static final long NEVER = 3_600_000;
+
+    /**
+     * Test that a write failing halfway leaves only whole records in the file and keeps the
+     * unwritten ones for the next sync.
+     * * @param dir Temporary directory for the journal file.
+     * @throws IOException If the journal cannot be opened or read.
+     */
+    @Test
+    public void testFailedWriteKeepsRecords(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("moves.journal");
+        FailingChannel channel = open(file);
+        EventJournal journal = new EventJournal(channel, NEVER);
+        journal.append(1, EventJournal.PLACE, 8, 0);
+        journal.append(1, EventJournal.PLACE, 8, 9);
+        journal.append(1, EventJournal.PLACE, 8, 18);
+
+        channel.budget = EventJournal.RECORD_SIZE + 6;
+        assertThrows(IOException.class, journal::sync, "The failed write should be reported");
+        assertEquals(EventJournal.HEADER_SIZE, Files.size(file), "The torn write should be cut off");
+
+        channel.budget = Long.MAX_VALUE;
+        journal.append(1, EventJournal.REMOVE, 8, 9);
+        journal.close();
+        assertEquals(List.of(0, 9, 18, -9), squares(file), "Every record should be written once, in order");
+    }
+
+    /**
+     * Test that a failure of the background commit is thrown by the next append, and that the
+     * records are written once the channel works again.
+     * * @param dir Temporary directory for the journal file.
+     * @throws Exception If the journal cannot be opened or read.
+     */
+    @Test
+    public void testBackgroundFailureIsReported(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("moves.journal");
+        FailingChannel channel = open(file);
+        channel.budget = 0;
+        EventJournal journal = new EventJournal(channel, 5);
+        journal.append(2, EventJournal.PLACE, 8, 3);
+
+        for (int i = 0; i < 500 && channel.failures.get() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(channel.failures.get() > 0, "The background commit should have failed");
+        channel.budget = Long.MAX_VALUE;
+        // Lets a commit that was already failing finish
+        Thread.sleep(50);
+
+        IOException reported = assertThrows(IOException.class, () -> journal.append(2, EventJournal.PLACE, 8, 12),
+            "The next append should report the failure");
+        assertEquals(FailingChannel.MESSAGE, reported.getMessage(), "The first failure should be reported");
+        journal.sync();
+        journal.close();
+        assertEquals(List.of(3, 12), squares(file), "Both records should be written");
+    }
+
+    /**
+     * Test that a journal reopened after a torn write that could not be cut off keeps its whole
+     * records and appends after them.
+     * * @param dir Temporary directory for the journal file.
+     * @throws IOException If the journal cannot be opened or read.
+     */
+    @Test
+    public void testReopenAfterPartialWrite(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("moves.journal");
+        FailingChannel channel = open(file);
+        channel.failTruncate = true;
+        EventJournal journal = new EventJournal(channel, NEVER);
+        journal.append(3, EventJournal.PLACE, 8, 0);
+        journal.append(3, EventJournal.PLACE, 8, 10);
+
+        channel.budget = EventJournal.RECORD_SIZE + 6;
+        IOException ex = assertThrows(IOException.class, journal::close, "Closing should report the failed write");
+        assertEquals(1, ex.getSuppressed().length, "The failed truncation should be attached");
+        assertEquals(EventJournal.HEADER_SIZE + EventJournal.RECORD_SIZE + 6, Files.size(file), "The torn record should be left behind");
+
+        try (EventJournal reopened = new EventJournal(file)) {
+            reopened.append(3, EventJournal.PLACE, 8, 27);
+        }
+        assertEquals(List.of(0, 27), squares(file), "The torn record should be dropped and new ones follow the whole ones");
+    }
+
+    /**
+     * Creates a journal file and opens it at its end.
+     * @param file The journal file.
+     * @return The channel, failing nothing yet.
+     * @throws IOException If the file cannot be created.
+     */
+    private static FailingChannel open(Path file) throws IOException {
+        new EventJournal(file).close();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return new FailingChannel(channel);
+    }
+
+    /**
+     * Reads the squares of a journal; removals are negative.
+     * @param file The journal file.
+     * @return The squares in file order.
+     * @throws IOException If the journal cannot be read.
+     */
+    private static List<Integer> squares(Path file) throws IOException {
+        List<Integer> squares = new ArrayList<>();
+        new JournalReader(file).forEach((id, time, type, size, square) -> squares.add(type == EventJournal.REMOVE ? -square : square));
+        return squares;
+    }
+
+    /**
+     * File channel that writes at most a given number of bytes and then fails, like a full disk.
+     */
+    private static final class FailingChannel extends FileChannel {
+
+        /** Message of the injected failures. */
+        static final String MESSAGE = "No space left on device";
+
+        /** The real channel. */
+        private final FileChannel delegate;
+
+        /** Number of bytes that may still be written. */
+        volatile long budget = Long.MAX_VALUE;
+
+        /** Whether truncation fails as well. */
+        volatile boolean failTruncate;
+
+        /** Number of failed writes. */
+        final AtomicInteger failures = new AtomicInteger();
+
+        /**
+         * @param delegate The real channel.
+         */
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            if (budget <= 0) {
+                failures.incrementAndGet();
+                throw new IOException(MESSAGE);
+            }
+            ByteBuffer part = src.slice(src.position(), (int) Math.min(src.remaining(), budget));
+            int written = delegate.write(part, position);
+            src.position(src.position() + written);
+            budget -= written;
+            return written;
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) throw new IOException("Truncation failed");
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            throw new UnsupportedOperationException("The journal writes at explicit positions");
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException("The journal writes at explicit positions");
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}